@@ -0,0 +1,38 @@
+/**
+ * Performance benchmarks for the blackjack game
+ */
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command line options
+ * and always adds the GC profiler, so every run reports bytes allocated per
+ * operation next to the throughput
+ * @author Michael Baker
+ */
+public final class BenchmarkRunner {
+
+   /**
+    * private constructor - only used through main
+    */
+   private BenchmarkRunner() {
+   }
+
+   /**
+    * Main function for the benchmarks jar
+    * @param args - JMH command line options, for example a benchmark name regex
+    * @throws RunnerException - thrown if a benchmark fails
+    * @throws CommandLineOptionException - thrown if the options can't be parsed
+    */
+   public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+      new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+   } // end of main
+
+}// end of BenchmarkRunner class
@@ -0,0 +1,110 @@
+/**
+ * Performance benchmarks for the blackjack game
+ */
+package benchmarks;
+
+import deck.Card;
+import deck.DealingMachine;
+import deck.InfiniteDeckDealingMachine;
+import deck.ShuffleAhead;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for building, shuffling and drawing from a DealingMachine, and for
+ * drawing from an infinite deck in its place
+ * @author Michael Baker
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DealingMachineBenchmark {
+   @Param({ "1", "6", "8" })
+   public int numberOfDecks;
+
+   private SplittableRandom randomGenerator;
+   private DealingMachine shoe;
+   private ShuffleAhead shuffler;
+   private DealingMachine shuffledAheadShoe;
+   private DealingMachine infiniteDeck;
+
+   @Setup
+   public void setup() {
+      this.randomGenerator = new SplittableRandom(42);
+      this.shoe = new DealingMachine(this.numberOfDecks, 0.75, this.randomGenerator);
+      this.shuffler = new ShuffleAhead("benchmark-shuffler");
+      this.shuffler.start();
+      this.shuffledAheadShoe = new DealingMachine(this.numberOfDecks, 0.75, new SplittableRandom(43),
+            this.shuffler.newQueue(this.numberOfDecks, ShuffleAhead.DEFAULT_SHOES_AHEAD, new SplittableRandom(44)));
+      this.infiniteDeck = new InfiniteDeckDealingMachine(this.numberOfDecks, new SplittableRandom(45));
+   }
+
+   @TearDown
+   public void tearDown() {
+      this.shuffler.close();
+   }
+
+   /**
+    * builds and shuffles a new shoe
+    */
+   @Benchmark
+   public DealingMachine construct() {
+      return new DealingMachine(this.numberOfDecks, 0.75, this.randomGenerator);
+   }
+
+   /**
+    * reshuffles an existing shoe in place
+    */
+   @Benchmark
+   public DealingMachine shuffle() {
+      this.shoe.shuffle();
+      return this.shoe;
+   }
+
+   /**
+    * reshuffles a shoe by swapping in one shuffled ahead. Only faster than
+    * shuffle() while the producer keeps up, which takes a spare core - once the
+    * queue runs dry the shoe shuffles inline
+    */
+   @Benchmark
+   public DealingMachine shuffleAhead() {
+      this.shuffledAheadShoe.shuffle();
+      return this.shuffledAheadShoe;
+   }
+
+   /**
+    * draws a single card, reshuffling at the cut card like a table does between
+    * rounds
+    */
+   @Benchmark
+   public Card draw() {
+      this.shoe.reshuffleIfNeeded();
+      return this.shoe.draw();
+   }
+
+   /**
+    * draws a single card from an infinite deck, which never reshuffles, for
+    * comparison with draw()
+    */
+   @Benchmark
+   public Card drawInfiniteDeck() {
+      this.infiniteDeck.reshuffleIfNeeded();
+      return this.infiniteDeck.draw();
+   }
+
+}// end of DealingMachineBenchmark class
@@ -0,0 +1,107 @@
+/**
+ * Performance benchmarks for the blackjack game
+ */
+package benchmarks;
+
+import blackjack.BlackjackLogic;
+import blackjack.HandBatch;
+import blackjack.HandBatchEvaluator;
+import deck.Card;
+import deck.DealingMachine;
+import deck.Hand;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for evaluating a batch of random hands of two to six cards, one
+ * Card[] at a time with cardCounter and all at once with each HandBatchEvaluator.
+ * Scores are hands per microsecond. The forks load the Vector API. To compare
+ * vector widths on one CPU, replace the fork's arguments and keep the module,
+ * for example -jvmArgsAppend "--add-modules jdk.incubator.vector -XX:UseAVX=2"
+ * for AVX2, or -XX:UseAVX=0 for SSE only
+ * @author Michael Baker
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", HandBatchEvaluator.VECTOR_MODULE })
+@State(Scope.Thread)
+public class HandBatchBenchmark {
+   private static final int BATCH_SIZE = 4096;
+
+   @Param({ "scalar", "vector" })
+   public String evaluator;
+
+   private Card[][] cardArrays;
+   private HandBatch batch;
+   private HandBatchEvaluator batchEvaluator;
+
+   @Setup
+   public void setup() {
+      this.batchEvaluator = this.evaluator.equals("vector") ? HandBatchEvaluator.vector() : HandBatchEvaluator.scalar();
+      SplittableRandom random = new SplittableRandom(42);
+      DealingMachine shoe = new DealingMachine(8, 1.0, random);
+      this.cardArrays = new Card[BATCH_SIZE][];
+      this.batch = new HandBatch(BATCH_SIZE);
+      Hand[] hands = new Hand[BATCH_SIZE];
+      for (int i = 0; i < BATCH_SIZE; i++) {
+         this.cardArrays[i] = new Card[2 + random.nextInt(5)];
+         for (int j = 0; j < this.cardArrays[i].length; j++) {
+            if (shoe.getCardsRemaining() == 0) {
+               shoe.shuffle();
+            }
+            this.cardArrays[i][j] = shoe.draw();
+         }
+         this.batch.add(this.cardArrays[i]);
+         hands[i] = new Hand();
+         for (Card card : this.cardArrays[i]) {
+            hands[i].add(card);
+         }
+      }
+
+      // a fast evaluator is no use if it's wrong - see HandBatchParity for the full check
+      this.batchEvaluator.evaluate(this.batch);
+      int mismatches = HandBatchParity.countMismatches(this.batch, hands);
+      if (mismatches > 0) {
+         throw new RuntimeException(this.batchEvaluator.getName() + " disagrees with Hand on " + mismatches
+               + " hands");
+      }
+   }
+
+   /**
+    * counts every hand with cardCounter, the baseline
+    */
+   @Benchmark
+   @OperationsPerInvocation(BATCH_SIZE)
+   public int cardCounter() {
+      int sum = 0;
+      for (Card[] hand : this.cardArrays) {
+         sum += BlackjackLogic.cardCounter(hand);
+      }
+      return sum;
+   }
+
+   /**
+    * evaluates the whole batch
+    */
+   @Benchmark
+   @OperationsPerInvocation(BATCH_SIZE)
+   public HandBatch evaluateBatch() {
+      this.batchEvaluator.evaluate(this.batch);
+      return this.batch;
+   }
+
+}// end of HandBatchBenchmark class
@@ -0,0 +1,118 @@
+/**
+ * Performance benchmarks for the blackjack game
+ */
+package benchmarks;
+
+import blackjack.HandBatch;
+import blackjack.HandBatchEvaluator;
+import deck.Card;
+import deck.Hand;
+import java.util.SplittableRandom;
+
+/**
+ * Runnable check that the batch evaluators HandBatchBenchmark times give the
+ * same results as Hand - every hand's total and its soft, bust and blackjack
+ * flags - on random batches. Every batch size from 1 to MAX_SWEPT_SIZE is
+ * checked, so every remainder a vector evaluator leaves to its scalar tail is
+ * covered whatever the vector width, and then random sizes until the number of
+ * hands asked for is reached. Run it from the benchmarks jar with the vector
+ * module loaded, or the vector evaluator is skipped:
+ * java --add-modules jdk.incubator.vector -cp benchmarks/target/benchmarks.jar
+ * benchmarks.HandBatchParity
+ * @author Michael Baker
+ */
+public final class HandBatchParity {
+   private static final int MAX_SWEPT_SIZE = 256;
+   private static final int MAX_RANDOM_SIZE = 4099;
+   // enough cards to go well past 21, few enough for a batch's byte totals
+   private static final int MAX_CARDS_PER_HAND = 12;
+
+   /**
+    * private constructor - only used through its static functions
+    */
+   private HandBatchParity() {
+   }
+
+   /**
+    * Main function for the check
+    * @param args - optional number of hands and seed, in that order
+    * @postcondition - prints a line for each evaluator checked, and exits with
+    *                status 1 if any hand differs
+    */
+   public static void main(String[] args) {
+      long hands = (args.length > 0) ? Long.parseLong(args[0]) : 500_000L;
+      long seed = (args.length > 1) ? Long.parseLong(args[1]) : 42L;
+
+      long mismatches = check(HandBatchEvaluator.scalar(), hands, seed);
+      if (HandBatchEvaluator.isVectorAvailable()) {
+         mismatches += check(HandBatchEvaluator.vector(), hands, seed);
+      } else {
+         System.out.println("vector: skipped, start the JVM with --add-modules " + HandBatchEvaluator.VECTOR_MODULE);
+      }
+      if (mismatches > 0) {
+         System.exit(1);
+      }
+   } // end of main
+
+   /**
+    * Static function that checks one evaluator against Hand
+    * @param evaluator - the evaluator to check
+    * @param hands - least number of hands to check
+    * @param seed - seed the hands are dealt from, so every evaluator sees the
+    *        same batches
+    * @return - number of hands the evaluator got wrong
+    */
+   public static long check(HandBatchEvaluator evaluator, long hands, long seed) {
+      SplittableRandom random = new SplittableRandom(seed);
+      HandBatch batch = new HandBatch(Math.max(MAX_SWEPT_SIZE, MAX_RANDOM_SIZE));
+      Hand[] dealt = new Hand[batch.getCapacity()];
+      for (int h = 0; h < dealt.length; h++) {
+         dealt[h] = new Hand();
+      }
+
+      long checked = 0;
+      long mismatches = 0;
+      int batches = 0;
+      for (int size = 1; size <= MAX_SWEPT_SIZE || checked < hands; size++) {
+         int batchSize = (size <= MAX_SWEPT_SIZE) ? size : 1 + random.nextInt(MAX_RANDOM_SIZE);
+         // the same batch is cleared and refilled every time, as a caller would
+         batch.clear();
+         for (int h = 0; h < batchSize; h++) {
+            dealt[h].clear();
+            int cards = 1 + random.nextInt(MAX_CARDS_PER_HAND);
+            for (int c = 0; c < cards; c++) {
+               dealt[h].add(Card.of(random.nextInt(Card.NUMBER_OF_CARDS)));
+            }
+            batch.add(dealt[h]);
+         }
+         evaluator.evaluate(batch);
+         mismatches += countMismatches(batch, dealt);
+         checked += batchSize;
+         batches++;
+      }
+
+      System.out.println(evaluator.getName() + ": " + checked + " hands in " + batches + " batches, " + mismatches
+            + " mismatches");
+      return mismatches;
+   } // end check()
+
+   /**
+    * Static function that compares an evaluated batch with the hands it was
+    * filled from
+    * @param batch - a batch that has been evaluated
+    * @param hands - the hands added to the batch, in the order they were added
+    * @return - number of hands whose total or flags differ from Hand's
+    */
+   public static int countMismatches(HandBatch batch, Hand[] hands) {
+      int mismatches = 0;
+      for (int h = 0; h < batch.size(); h++) {
+         Hand hand = hands[h];
+         if (batch.getTotal(h) != hand.getTotal() || batch.isSoft(h) != hand.isSoft()
+               || batch.isBust(h) != hand.isBust() || batch.isBlackjack(h) != hand.isBlackjack()) {
+            mismatches++;
+         }
+      }
+      return mismatches;
+   } // end countMismatches()
+
+}// end of HandBatchParity class
@@ -0,0 +1,100 @@
+/**
+ * Performance benchmarks for the blackjack game
+ */
+package benchmarks;
+
+import blackjack.BlackjackLogic;
+import deck.Card;
+import deck.DealingMachine;
+import deck.Hand;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for counting hands and resolving a round that neither actor won
+ * outright, over a pool of random hands of a fixed size
+ * @author Michael Baker
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandEvaluationBenchmark {
+   // enough hands that the branch predictor can't learn the pool
+   private static final int POOL_SIZE = 1024;
+
+   @Param({ "2", "3", "4", "5", "6", "7" })
+   public int handSize;
+
+   private Card[][] cardArrays;
+   private Hand[] hands;
+   private int next = 0;
+
+   @Setup
+   public void setup() {
+      DealingMachine shoe = new DealingMachine(8, 1.0, new SplittableRandom(42));
+      this.cardArrays = new Card[POOL_SIZE][this.handSize];
+      this.hands = new Hand[POOL_SIZE];
+      for (int i = 0; i < POOL_SIZE; i++) {
+         this.hands[i] = new Hand();
+         for (int j = 0; j < this.handSize; j++) {
+            if (shoe.getCardsRemaining() == 0) {
+               shoe.shuffle();
+            }
+            this.cardArrays[i][j] = shoe.draw();
+            this.hands[i].add(this.cardArrays[i][j]);
+         }
+      }
+   }
+
+   /**
+    * counts a Card[] hand from scratch
+    */
+   @Benchmark
+   public int cardCounter() {
+      this.next = (this.next + 1) & (POOL_SIZE - 1);
+      return BlackjackLogic.cardCounter(this.cardArrays[this.next]);
+   }
+
+   /**
+    * reads the running total of a Hand
+    */
+   @Benchmark
+   public int handTotal() {
+      this.next = (this.next + 1) & (POOL_SIZE - 1);
+      return this.hands[this.next].getTotal();
+   }
+
+   /**
+    * compares two Card[] hands
+    */
+   @Benchmark
+   public int solveUnknownGameStateCards() {
+      this.next = (this.next + 1) & (POOL_SIZE - 1);
+      return BlackjackLogic.solveUnknownGameState(this.cardArrays[this.next],
+            this.cardArrays[(this.next + 1) & (POOL_SIZE - 1)]);
+   }
+
+   /**
+    * compares two Hands
+    */
+   @Benchmark
+   public int solveUnknownGameStateHands() {
+      this.next = (this.next + 1) & (POOL_SIZE - 1);
+      return BlackjackLogic.solveUnknownGameState(this.hands[this.next], this.hands[(this.next + 1) & (POOL_SIZE - 1)]);
+   }
+
+}// end of HandEvaluationBenchmark class
@@ -0,0 +1,77 @@
+/**
+ * Performance benchmarks for the blackjack game
+ */
+package benchmarks;
+
+import actors.Dealer;
+import actors.Player;
+import blackjack.BlackjackLogic;
+import blackjack.GameContext;
+import deck.DealingMachine;
+import deck.InfiniteDeckDealingMachine;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of a full automated round - bet, deal, player and dealer play and
+ * resolution - at one table dealing from a six deck shoe, as the headless
+ * simulator plays it, and the same round dealt from an infinite deck
+ * @author Michael Baker
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoundBenchmark {
+   private GameContext table;
+   private DealingMachine shoe;
+   private DealingMachine infiniteDeck;
+
+   @Setup
+   public void setup() {
+      this.table = new GameContext();
+      this.shoe = new DealingMachine(6, 0.75, new SplittableRandom(42));
+      this.infiniteDeck = new InfiniteDeckDealingMachine(6, new SplittableRandom(42));
+   }
+
+   /**
+    * plays one complete dealer versus player round
+    */
+   @Benchmark
+   public int fullRound() {
+      return this.playRound(this.shoe);
+   }
+
+   /**
+    * plays one complete round like fullRound(), drawing every card from an
+    * infinite deck
+    */
+   @Benchmark
+   public int fullRoundInfiniteDeck() {
+      return this.playRound(this.infiniteDeck);
+   }
+
+   private int playRound(DealingMachine dealingMachine) {
+      Player player = new Player(1);
+      Dealer dealer = new Dealer();
+      dealer.setQuiet(true);
+      player.addMoneyToPlayer(1);
+      player.bet();
+
+      dealingMachine.reshuffleIfNeeded();
+      return BlackjackLogic.playRound(this.table, dealer, player, dealingMachine, null);
+   }
+
+}// end of RoundBenchmark class
@@ -0,0 +1,125 @@
+/**
+ * 
+ */
+package actors;
+
+import deck.Card;
+import deck.Hand;
+
+/**
+ * Strategy that bets the same amount every round and plays basic strategy from
+ * a precomputed table of hard totals, soft totals and pairs against each dealer
+ * upcard. Every decision is a single read from the table
+ * 
+ * The game has no double down or split, so the table only holds hit and stand.
+ * The pair rows are kept separate so a split can be added without changing how
+ * the table is indexed
+ * @see PlayerStrategy
+ * @author Michael Baker
+ */
+public final class BasicStrategy implements PlayerStrategy {
+   // the table has one row per hard total (0-21), one per soft total (0-21) and
+   // one per pair card value (0-10), and one column per upcard value (0-10)
+   private static final int COLUMNS = 11;
+   private static final int HARD_ROWS = 0;
+   private static final int SOFT_ROWS = 22 * COLUMNS;
+   private static final int PAIR_ROWS = 2 * 22 * COLUMNS;
+   private static final byte[] DECISIONS = buildTable();
+
+   private final int flatBet;
+
+   /**
+    * constructor for the basic strategy
+    * @param flatBet - amount bet every round
+    * @precondition Expects a positive integer
+    */
+   public BasicStrategy(int flatBet) {
+      if (flatBet <= 0) {
+         throw new RuntimeException("The automated player's bet must be greater than zero!");
+      }
+      this.flatBet = flatBet;
+   }// end of BasicStrategy()
+
+   @Override
+   public int bet(int money) {
+      return this.flatBet;
+   }// end of bet()
+
+   @Override
+   public int decide(Hand hand, Card dealerUpcard) {
+      return DECISIONS[index(hand, dealerUpcard.getRankValue())];
+   }// end of decide()
+
+   /**
+    * Static function that finds a hand's entry in the table
+    * @param hand - the player's current hand
+    * @param upcardValue - point value of the dealer's upcard, 1 for an ace
+    * @return - index into the table
+    */
+   private static int index(Hand hand, int upcardValue) {
+      if (hand.size() == 2) {
+         int firstValue = hand.getCard(0).getRankValue();
+         if (firstValue == hand.getCard(1).getRankValue()) {
+            return PAIR_ROWS + firstValue * COLUMNS + upcardValue;
+         }
+      }
+      return (hand.isSoft() ? SOFT_ROWS : HARD_ROWS) + hand.getTotal() * COLUMNS + upcardValue;
+   }// end of index()
+
+   /**
+    * Static function that fills the table once when the class is loaded
+    * @return - the decision for every hand and upcard
+    */
+   private static byte[] buildTable() {
+      byte[] table = new byte[PAIR_ROWS + 11 * COLUMNS];
+      for (int upcard = 1; upcard <= 10; upcard++) {
+         for (int total = 0; total <= 21; total++) {
+            table[HARD_ROWS + total * COLUMNS + upcard] = hardDecision(total, upcard);
+            table[SOFT_ROWS + total * COLUMNS + upcard] = softDecision(total, upcard);
+         }
+         // without splitting, a pair plays as the total it makes - two aces are a
+         // soft 12
+         table[PAIR_ROWS + 1 * COLUMNS + upcard] = softDecision(12, upcard);
+         for (int value = 2; value <= 10; value++) {
+            table[PAIR_ROWS + value * COLUMNS + upcard] = hardDecision(2 * value, upcard);
+         }
+      }
+      return table;
+   }// end of buildTable()
+
+   /**
+    * Static function with the hit/stand rule for hard totals
+    * @param total - value of the hand
+    * @param upcard - point value of the dealer's upcard, 1 for an ace
+    * @return - HIT or STAND
+    */
+   private static byte hardDecision(int total, int upcard) {
+      boolean dealerWeak = (upcard >= 2 && upcard <= 6);
+      if (total >= 17) {
+         return STAND;
+      } else if (total >= 13) {
+         return (byte) (dealerWeak ? STAND : HIT);
+      } else if (total == 12) {
+         return (byte) ((upcard >= 4 && upcard <= 6) ? STAND : HIT);
+      } else {
+         return HIT;
+      }
+   }// end of hardDecision()
+
+   /**
+    * Static function with the hit/stand rule for soft totals
+    * @param total - value of the hand with one ace counted as 11
+    * @param upcard - point value of the dealer's upcard, 1 for an ace
+    * @return - HIT or STAND
+    */
+   private static byte softDecision(int total, int upcard) {
+      if (total >= 19) {
+         return STAND;
+      } else if (total == 18) {
+         return (byte) ((upcard >= 2 && upcard <= 8) ? STAND : HIT);
+      } else {
+         return HIT;
+      }
+   }// end of softDecision()
+
+}// end of BasicStrategy class
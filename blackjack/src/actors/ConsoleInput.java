@@ -0,0 +1,44 @@
+/**
+ * 
+ */
+package actors;
+
+import java.util.Scanner;
+
+/**
+ * Input source that reads the answers typed at the console. Only one Scanner
+ * is ever made over System.in, so nothing the user typed ahead is lost between
+ * rounds
+ * @see InputSource
+ * @author Michael Baker
+ */
+public final class ConsoleInput implements InputSource {
+   private final Scanner scanner;
+
+   /**
+    * constructor for an input source that reads System.in
+    */
+   public ConsoleInput() {
+      this(new Scanner(System.in));
+   }// end of ConsoleInput()
+
+   /**
+    * constructor for an input source that reads from an existing scanner
+    * @param scanner - the scanner to read answers from
+    * @precondition expects an active (not null) Scanner reference
+    */
+   public ConsoleInput(Scanner scanner) {
+      this.scanner = scanner;
+   }// end of ConsoleInput()
+
+   @Override
+   public String next() {
+      return this.scanner.next();
+   }
+
+   @Override
+   public int nextInt() {
+      return this.scanner.nextInt();
+   }
+
+}// end of ConsoleInput class
@@ -0,0 +1,96 @@
+/**
+ * 
+ */
+package actors;
+
+import deck.Card;
+import deck.Hand;
+import java.io.PrintStream;
+import java.util.Scanner;
+
+/**
+ * Strategy that asks the person at the console for every bet and move. The
+ * answers can also come from a script or a session file, so the same prompts
+ * and checks are run without anybody typing
+ * @see PlayerStrategy
+ * @author Michael Baker
+ */
+public final class ConsoleStrategy implements PlayerStrategy {
+   private final InputSource input;
+   private final PrintStream out;
+
+   /**
+    * constructor for the console strategy
+    * @param scannerReference - reference to the scanner the strategy will use to
+    *        interact with the console
+    * @precondition expects a reference to a Java Scanner object with System.in
+    *               as the parameter
+    */
+   public ConsoleStrategy(Scanner scannerReference) {
+      this(new ConsoleInput(scannerReference), System.out);
+   }// end of ConsoleStrategy()
+
+   /**
+    * constructor for a strategy that reads its answers from any input source
+    * @param input - where the player's answers are read from
+    * @param out - where the prompts are printed
+    * @precondition expects active (not null) references
+    */
+   public ConsoleStrategy(InputSource input, PrintStream out) {
+      this.input = input;
+      this.out = out;
+   }// end of ConsoleStrategy()
+
+   /**
+    * Asks the player for a bet until they enter one they can afford
+    * @param money - the player's current money total
+    * @return - integer greater than zero and no more than money
+    */
+   @Override
+   public int bet(int money) {
+      boolean badBet = false;
+      int playersBet;
+      do {
+         this.out.print("Place your bet: ");
+         // send the call for the player to bet
+         playersBet = this.input.nextInt();
+         if (playersBet <= 0) {
+            this.out.println("The entered bet must be greater than zero!");
+            badBet = true;
+         } else if (playersBet > money) {
+            this.out.print("You cannot bet more than you have!\n");
+            badBet = true;
+         } else {
+            badBet = false;
+         }
+      } while (badBet);
+
+      return (playersBet);
+   }// end of bet()
+
+   /**
+    * Asks the player to hit or stand until they enter H or S
+    * @param hand - the player's current hand
+    * @param dealerUpcard - the dealer's face up card
+    * @return - either HIT or STAND
+    */
+   @Override
+   public int decide(Hand hand, Card dealerUpcard) {
+      while (true) {
+         // create I/O for player
+         this.out.print("[H]it or [S]tand: ");
+         String move = this.input.next();
+
+         // check the player's input
+         switch (move) {
+         case "H":
+            return HIT;
+         case "S":
+            return STAND;
+         default:
+            this.out.println("Player can either hit by entering H, or stand by entering S");
+         }
+      }
+   }// end of decide()
+
+}// end of ConsoleStrategy class
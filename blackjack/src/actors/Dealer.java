@@ -23,13 +23,16 @@ public final class Dealer extends GameActor {
     */
    @Override
    protected void stand() {
-      BlackjackLogic.updateGameState(BlackjackLogic.PASS_GAME_STATE_TO_MAIN_LOOP);
-      System.out.println("Dealer Stands...");
+      this.gameContext.updateGameState(BlackjackLogic.PASS_GAME_STATE_TO_MAIN_LOOP);
+      if (!this.quiet) {
+         System.out.println("Dealer Stands...");
+      }
    }
 
    @Override
    /**
-    * Dealer's logic is rather simple. Hit until greater than 17, then stand
+    * Dealer's logic is rather simple. Hit until greater than 17, then stand - or
+    * also hit a soft 17 if the table's rules say so
     */
    public void reason() {
       // dealer's reason is simple - if their hand is less than 17 they hit, otherwise
@@ -40,19 +43,22 @@ public final class Dealer extends GameActor {
       this.hiddenHandLatch = false;
 
       // first check to see if the dealer has won immediately
-      int handCardCount = BlackjackLogic.cardCounter(this.hand);
+      int handCardCount = this.hand.getTotal();
 
       if (BlackjackLogic.checkForWinningHand(this.hand)) {
-         BlackjackLogic.updateGameState(BlackjackLogic.GAME_WON_BY_DEALER);
+         this.gameContext.updateGameState(BlackjackLogic.GAME_WON_BY_DEALER);
          return;
-      } else if (handCardCount < 17) {
+      } else if (handCardCount < 17
+            || (handCardCount == 17 && this.hand.isSoft() && this.gameContext.getRules().dealerHitsSoft17())) {
          // if the value is less than 17 hit
          this.hit();
-         System.out.println("Dealer Hits...");
+         if (!this.quiet) {
+            System.out.println("Dealer Hits...");
+         }
       } else if (handCardCount >= 17) {
          if (handCardCount > 21) {
             // if the value is greater than 21, the dealer busts and the player wins
-            BlackjackLogic.updateGameState(BlackjackLogic.GAME_WON_BY_PLAYER);
+            this.gameContext.updateGameState(BlackjackLogic.GAME_WON_BY_PLAYER);
          } else {
             this.stand();
          }
@@ -60,21 +66,32 @@ public final class Dealer extends GameActor {
    }
 
    /**
-    * Visualization interface
+    * Gets the dealer ready for another round, with the second card of the next
+    * hand face down again
+    */
+   @Override
+   public void reset() {
+      super.reset();
+      this.hiddenHandLatch = true;
+   }
+
+   /**
+    * Writes the dealer's line of the table, keeping the second card face down
+    * until the dealer starts to play
     */
-   public void drawTick() {
-      System.out.print("Dealers hand: ");
-      for (int i = 0; i < this.hand.length; i++) {
+   @Override
+   public void appendHand(StringBuilder line) {
+      line.append("Dealers hand: ");
+      for (int i = 0; i < this.hand.size(); i++) {
          // at first the second card the dealer draws is hidden
          // un-hide it when the dealer starts to draw cards
          if ((i == 1) && this.hiddenHandLatch) {
-            System.out.print("|-----|");
+            line.append("|-----|");
          } else {
-            System.out.print(this.hand[i]);
+            line.append(this.hand.getCard(i));
          }
-         System.out.print("\t");
+         line.append('\t');
       }
-      System.out.println();
    }
 
 }
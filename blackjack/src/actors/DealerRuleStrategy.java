@@ -0,0 +1,40 @@
+/**
+ * 
+ */
+package actors;
+
+import deck.Card;
+import deck.Hand;
+
+/**
+ * Strategy that bets the same amount every round and plays the dealer's rule -
+ * hit below 17, stand otherwise
+ * @see PlayerStrategy
+ * @author Michael Baker
+ */
+public final class DealerRuleStrategy implements PlayerStrategy {
+   private final int flatBet;
+
+   /**
+    * constructor for the dealer rule strategy
+    * @param flatBet - amount bet every round
+    * @precondition Expects a positive integer
+    */
+   public DealerRuleStrategy(int flatBet) {
+      if (flatBet <= 0) {
+         throw new RuntimeException("The automated player's bet must be greater than zero!");
+      }
+      this.flatBet = flatBet;
+   }// end of DealerRuleStrategy()
+
+   @Override
+   public int bet(int money) {
+      return this.flatBet;
+   }// end of bet()
+
+   @Override
+   public int decide(Hand hand, Card dealerUpcard) {
+      return (hand.getTotal() < 17) ? HIT : STAND;
+   }// end of decide()
+
+}// end of DealerRuleStrategy class
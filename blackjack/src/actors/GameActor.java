@@ -5,21 +5,25 @@ package actors;
 
 import deck.*;
 import blackjack.BlackjackLogic;
+import blackjack.GameContext;
 
 /**
  * Abstract class that captures shared functionality between the Player and the
  * Computer (each considered a "GameActor")
  * @author Michael Baker
  */
-public abstract class GameActor implements Visualizer {
+public abstract class GameActor {
    protected DealingMachine DealingMachineReference;
-   protected Card[] hand;
+   protected GameContext gameContext;
+   protected Hand hand = new Hand();
    protected String actorType;
+   protected boolean quiet = false; // suppresses console messages for headless play
 
    // need to static variables to capture if the player has been assigned a hand or
-   // dealing machine
+   // dealing machine - reset() releases them for the next round
    private boolean firstHandLatch = false;
    private boolean firstDealingMachineLatch = false;
+   private boolean firstGameContextLatch = false;
 
    /**
     * Constructor for an agent in the blackjack game
@@ -35,7 +39,7 @@ public abstract class GameActor implements Visualizer {
     * Private function that draws a card off of the top of the current dealing
     * machine
     * @precondition - does not expect any input, but expects that the
-    *               DealingMachineReference has been assigned
+    *               DealingMachineReference and gameContext have been assigned
     * @postcondition - does not return anything
     */
    protected void hit() {
@@ -43,22 +47,22 @@ public abstract class GameActor implements Visualizer {
       this.addCardToHand(this.DealingMachineReference.draw());
 
       // every time the actor hits, check to see if they won
-      if (BlackjackLogic.checkForWinningHand(this.getHand())) {
+      if (BlackjackLogic.checkForWinningHand(this.hand)) {
          switch (this.actorType) {
          case "Player":
-            BlackjackLogic.updateGameState(BlackjackLogic.GAME_WON_BY_PLAYER);
+            this.gameContext.updateGameState(BlackjackLogic.GAME_WON_BY_PLAYER);
             break;
          case "Dealer":
-            BlackjackLogic.updateGameState(BlackjackLogic.GAME_WON_BY_DEALER);
+            this.gameContext.updateGameState(BlackjackLogic.GAME_WON_BY_DEALER);
             break;
          }
-      } else if (BlackjackLogic.cardCounter(this.hand) > 21) {
+      } else if (this.hand.isBust()) {
          switch (this.actorType) {
          case "Player":
-            BlackjackLogic.updateGameState(BlackjackLogic.GAME_WON_BY_DEALER);
+            this.gameContext.updateGameState(BlackjackLogic.GAME_WON_BY_DEALER);
             break;
          case "Dealer":
-            BlackjackLogic.updateGameState(BlackjackLogic.GAME_WON_BY_PLAYER);
+            this.gameContext.updateGameState(BlackjackLogic.GAME_WON_BY_PLAYER);
             break;
          }
       }
@@ -76,16 +80,29 @@ public abstract class GameActor implements Visualizer {
     **** Getters
     ***************/
    /**
-    * public getter function that returns an array of the cards the actor is
-    * holding
-    * @return array of Card objects that contain the cards in the GameActor's hand
+    * public getter function that returns the cards the actor is holding
+    * @return Hand object that contains the cards in the GameActor's hand
     * @precondition - expects no input
-    * @postcondition - will always return an array of Card objects
+    * @postcondition - will always return a Hand object
     */
-   public Card[] getHand() {
+   public Hand getHand() {
       return this.hand;
    }
 
+   /**
+    * public function that writes the actor's line of the table - a label and the
+    * cards in their hand - into a buffer instead of to the console
+    * @param line - buffer the line is appended to
+    * @precondition - expects an active (not null) StringBuilder
+    * @postcondition - has no return, the line is appended without a newline
+    */
+   public void appendHand(StringBuilder line) {
+      line.append(this.actorType).append("s hand: ");
+      for (int i = 0; i < this.hand.size(); i++) {
+         line.append(this.hand.getCard(i)).append('\t');
+      }
+   } // end appendHand()
+
    /***************
     **** Setters
     ***************/
@@ -96,22 +113,8 @@ public abstract class GameActor implements Visualizer {
     * @postcondition - makes no return, but adds card to hand
     */
    private void addCardToHand(Card newCard) {
-      // get the number of cards currently in the actors hand
-      int currentHandLength = this.hand.length;
-
-      // create a new card array with one more card element
-      Card[] tempCards = new Card[currentHandLength + 1];
-
-      // loop through existing cards
-      for (int i = 0; i < currentHandLength; i++) {
-         tempCards[i] = new Card(this.hand[i]);
-      }
-
-      // add the card
-      tempCards[currentHandLength] = new Card(newCard);
-
-      // reset the pointer of this.hand to the tempCards array
-      this.hand = tempCards;
+      // the hand keeps its own running total, so adding a card is constant time
+      this.hand.add(newCard);
    } // end addCardToHand
 
    /**
@@ -126,20 +129,49 @@ public abstract class GameActor implements Visualizer {
       if (this.firstHandLatch) {
          throw new RuntimeException("GameActor's hand has already been initialized");
       } else {
-         // first need to set the hand to be not null
-         this.hand = new Card[cards.length];
-
          // iterate through provided cards to assign the drawn cards
-         int i = 0;
          for (var V : cards) {
-            this.hand[i] = new Card(V);
-            i++;
+            this.hand.add(V);
          }
 
          this.firstHandLatch = true;
       }
    } // end setHand
 
+   /**
+    * Setter function for a game actor's first two cards, without needing an
+    * array to hold them
+    * @param first - the first card dealt to the GameActor
+    * @param second - the second card dealt to the GameActor
+    * @precondition - expects two active (not null) Card objects
+    * @postcondition - has no return - assigns the cards to the GameActor
+    */
+   public void setHand(Card first, Card second) {
+      if (this.firstHandLatch) {
+         throw new RuntimeException("GameActor's hand has already been initialized");
+      }
+      this.hand.add(first);
+      this.hand.add(second);
+      this.firstHandLatch = true;
+   } // end setHand
+
+   /**
+    * Setter function for one of a game actor's first two cards, for tables that
+    * deal a card to every seat before anyone gets their second
+    * @param card - the next card dealt to the GameActor
+    * @precondition - expects an active (not null) Card object, and the actor to
+    *               have been dealt fewer than two cards
+    * @postcondition - has no return - once the second card is dealt the hand is
+    *                initialized as if setHand() had been called
+    */
+   public void dealCard(Card card) {
+      if (this.firstHandLatch) {
+         throw new RuntimeException("GameActor's hand has already been initialized");
+      }
+      this.hand.add(card);
+      this.firstHandLatch = (this.hand.size() == 2);
+   } // end dealCard()
+
    /**
     * Setter function to assign a game actor to a dealing machine for the game
     * @param DM - DealingMachine object representing a stack with a deck of cards
@@ -157,6 +189,52 @@ public abstract class GameActor implements Visualizer {
       }
    } // end setDealingMachine()
 
+   /**
+    * Setter function to seat a game actor at a table
+    * @param table - GameContext of the table the actor reports its moves to
+    * @precondition - Expects an active (not null) GameContext reference
+    * @postcondition - Has no return
+    */
+   public void setGameContext(GameContext table) {
+      // only seat the actor if it hasn't been done yet
+      if (this.firstGameContextLatch) {
+         throw new RuntimeException("GameActor's GameContext reference has already been initialized");
+      } else {
+         this.gameContext = table;
+         this.firstGameContextLatch = true;
+      }
+   } // end setGameContext()
+
+   /**
+    * Setter function to silence the console messages an actor prints while it
+    * plays, used when rounds are simulated without a user watching
+    * @param quiet - true if the actor should not print anything
+    * @precondition - expects a boolean
+    * @postcondition - has no return
+    */
+   public void setQuiet(boolean quiet) {
+      this.quiet = quiet;
+   } // end setQuiet()
+
+   /**
+    * Function that gets the actor ready for another round. The hand is emptied
+    * in place and the actor can be dealt a hand, seated at a table and given a
+    * dealing machine again, so the same actor can play any number of rounds
+    * without anything new being allocated. Inheriting classes that keep state of
+    * their own for a round reset it as well
+    * @precondition - expects the previous round to be over
+    * @postcondition - has no return, the actor is as it was before its first
+    *                round, apart from anything it carries between rounds
+    */
+   public void reset() {
+      this.hand.clear();
+      this.firstHandLatch = false;
+      this.firstDealingMachineLatch = false;
+      this.firstGameContextLatch = false;
+      this.DealingMachineReference = null;
+      this.gameContext = null;
+   } // end reset()
+
    /**
     * function that will be overwritten by inheriting classes based off of their
     * logic.
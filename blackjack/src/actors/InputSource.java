@@ -0,0 +1,30 @@
+/**
+ * 
+ */
+package actors;
+
+/**
+ * Interface for anything a person's answers at the table can be read from -
+ * the console, a script held in memory or a file of recorded sessions. Answers
+ * are read a whitespace separated token at a time, as a Scanner reads them
+ * 
+ * @author Michael Baker
+ */
+public interface InputSource {
+   /**
+    * Function that reads the next answer
+    * @return - the next token
+    * @throws java.util.NoSuchElementException - if there are no answers left
+    */
+   public String next();
+
+   /**
+    * Function that reads the next answer as a whole number
+    * @return - the next token's value
+    * @throws java.util.NoSuchElementException - if there are no answers left
+    * @throws NumberFormatException - if the next token is not a number
+    */
+   public default int nextInt() {
+      return Integer.parseInt(this.next());
+   }
+}// end of InputSource
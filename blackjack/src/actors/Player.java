@@ -13,8 +13,7 @@ import java.util.Scanner;
  */
 public final class Player extends GameActor {
    private int money;
-   private Scanner scanner;
-   private boolean scannerSetLatch = false;
+   private PlayerStrategy strategy;
 
    /**
     * constructor for the player object
@@ -22,40 +21,51 @@ public final class Player extends GameActor {
     * @precondition Expects a reference to a scanner
     *               object
     * @postcondition Creates an object of type Player
-    *                with a Scanner object
+    *                that plays through the console
     */
    public Player(Scanner inputScannerReference) {
       this.setScannerReference(inputScannerReference);
       this.actorType = "Player";
    }// end of Player()
 
+   /**
+    * constructor for an automated player used by headless simulations. The
+    * player always bets the same amount and plays the dealer's hit below 17
+    * rule, so it never touches the console
+    * @param flatBet - amount the player bets every round
+    * @precondition Expects a positive integer
+    * @postcondition Creates an object of type Player that does not need a
+    *                Scanner object
+    */
+   public Player(int flatBet) {
+      this(new DealerRuleStrategy(flatBet));
+   }// end of Player()
+
+   /**
+    * constructor for a player whose bets and moves are chosen by a strategy
+    * @param strategy - the strategy the player delegates to
+    * @precondition Expects an active (not null) PlayerStrategy reference
+    * @postcondition Creates an object of type Player
+    */
+   public Player(PlayerStrategy strategy) {
+      this.strategy = strategy;
+      this.actorType = "Player";
+   }// end of Player()
+
    /**
     * Public function that represents the player's ability to bet at the beginning
     * of the game
-    * @precondition Expects no input. Will interface with the player via the
-    *               scanner
+    * @precondition Expects no input. The bet is chosen by the player's strategy
     * @postcondition Will return a positive integer less than the players current
     *                money total
     * @return - integer representing the provided bet
     */
    public int bet() {
-      boolean badBet = false;
-      int playersBet;
-      do {
-         System.out.print("Place your bet: ");
-         // send the call for the player to bet
-         playersBet = scanner.nextInt();
-         if (playersBet <= this.money) {
-            this.money -= playersBet;
-            badBet = false;
-         } else if (playersBet >= this.money) {
-            System.out.print("You cannot bet more than you have!\n");
-            badBet = true;
-         } else if (playersBet <= 0) {
-            System.out.println("The entered bet must be greater than zero!");
-            badBet = true;
-         }
-      } while (badBet);
+      int playersBet = this.strategy.bet(this.money);
+      if (playersBet <= 0 || playersBet > this.money) {
+         throw new RuntimeException("Player cannot bet " + playersBet + " with " + this.money);
+      }
+      this.money -= playersBet;
 
       return (playersBet);
    }// end of bet()
@@ -64,44 +74,31 @@ public final class Player extends GameActor {
     * Stand function for players.
     * @precondition This function takes no input
     * @postcondition This function passes input to the Dealer by way of the
-    *                BlackjackLogic class and the gameState static variable
+    *                game state of the table's GameContext
     */
    protected void stand() {
-      BlackjackLogic.updateGameState(BlackjackLogic.PASS_GAME_STATE_TO_DEALER);
+      this.gameContext.updateGameState(BlackjackLogic.PASS_GAME_STATE_TO_DEALER);
    } // end of stand()
 
    /**
-    * Reason function for player. The player interacts with the function via the
-    * user interface (the shared scanner object)
+    * Reason function for player. The move is chosen by the player's strategy,
+    * which for a person at the console is the user interface
     * @precondition Does not expect any input
     * @postcondition Will call either the hit or stand function based off of the
     *                player
     */
    @Override
    public void reason() {
-      // create a boolean to capture bad moves
-      boolean badReason = false;
-
-      do {
-         // create I/O for player
-         System.out.print("[H]it or [S]tand: ");
-         String move = this.scanner.next();
-
-         // check the player's input
-         if (!move.equals("H") && !move.equals("S")) {
-            System.out.println("Player can either hit by entering H, or stand by entering S");
-            badReason = true;
-         } else {
-            switch (move) {
-            case "H":
-               this.hit();
-               return;
-            case "S":
-               this.stand();
-               return;
-            }
-         }
-      } while (badReason);
+      switch (this.strategy.decide(this.hand, this.gameContext.getDealerUpcard())) {
+      case PlayerStrategy.HIT:
+         this.hit();
+         break;
+      case PlayerStrategy.STAND:
+         this.stand();
+         break;
+      default:
+         throw new RuntimeException("Player strategy made an unknown move");
+      }
    }
 
    /***********************
@@ -121,25 +118,19 @@ public final class Player extends GameActor {
     **********************/
    /**
     * function to set the reference used by the player object to the scanner being
-    * used for the game
+    * used for the game. The player then plays through the console. It can be
+    * called again to rebind a reused player to another scanner
     * @param scannerReference - reference to the scanner the player object will use
     *        to interact with the console
     * @precondition expects a reference to a Java Scanner
     *               object with System.in
     *               as the parameter
-    * @postcondition sets the private scanner variable of
-    *                the player class
+    * @postcondition sets the private strategy variable of
+    *                the player class to a ConsoleStrategy
     */
    public void setScannerReference(Scanner scannerReference) {
-      // only set the scanner if it has not yet been set
-      if (this.scannerSetLatch) {
-         throw new RuntimeException("Player Scanner reference has already been set");
-
-      } else {
-         // set the scanner reference to the reference to the input scanner
-         this.scanner = scannerReference;
-         this.scannerSetLatch = true;
-      }
+      // hand the scanner to a console strategy
+      this.strategy = new ConsoleStrategy(scannerReference);
    } // end of setScannerReference()
 
    /**
@@ -154,18 +145,4 @@ public final class Player extends GameActor {
       this.money += money;
    }// end of addMoneyToPlayer
 
-   /**
-    * Implementation of the Visualizer interface for the Player object
-    * @precondition Expects no input
-    * @postcondition Returns no output
-    */
-   public void drawTick() {
-      System.out.print("Players hand: ");
-      for (var c : this.hand) {
-         System.out.print(c);
-         System.out.print("\t");
-      }
-      System.out.println();
-   }// end of drawTick()
-
 }
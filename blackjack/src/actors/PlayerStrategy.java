@@ -0,0 +1,35 @@
+/**
+ * 
+ */
+package actors;
+
+import deck.Card;
+import deck.Hand;
+
+/**
+ * Interface for the decisions a Player makes - how much to bet and whether to
+ * hit or stand. The Player delegates to its strategy, so the same Player can be
+ * driven by a person at the console or by a bot
+ * 
+ * @author Michael Baker
+ */
+public interface PlayerStrategy {
+   // decisions returned by decide()
+   final int HIT = 1;
+   final int STAND = 2;
+
+   /**
+    * Function that chooses the bet for the next round
+    * @param money - the player's current money total
+    * @return - integer greater than zero and no more than money
+    */
+   public int bet(int money);
+
+   /**
+    * Function that chooses the player's next move
+    * @param hand - the player's current hand, totalling less than 21
+    * @param dealerUpcard - the dealer's face up card
+    * @return - either HIT or STAND
+    */
+   public int decide(Hand hand, Card dealerUpcard);
+}// end of PlayerStrategy
@@ -0,0 +1,51 @@
+/**
+ * 
+ */
+package actors;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Input source that answers from a script held in memory, such as
+ * "100 10 H S Y 5 S N" - the starting money, a bet, the moves of the round,
+ * whether to play again and so on
+ * @see InputSource
+ * @author Michael Baker
+ */
+public final class ScriptedInput implements InputSource {
+   private final String[] answers;
+   private int next = 0;
+
+   /**
+    * constructor for a script written as a single string
+    * @param script - answers separated by whitespace
+    */
+   public ScriptedInput(String script) {
+      this(script.trim().isEmpty() ? new String[0] : script.trim().split("\\s+"));
+   }// end of ScriptedInput()
+
+   /**
+    * constructor for a script already split into answers
+    * @param answers - the answers in the order they are asked for
+    */
+   public ScriptedInput(String[] answers) {
+      this.answers = answers;
+   }// end of ScriptedInput()
+
+   @Override
+   public String next() {
+      if (this.next == this.answers.length) {
+         throw new NoSuchElementException("The script has no answers left");
+      }
+      return this.answers[this.next++];
+   }
+
+   /**
+    * function that checks if every answer has been read
+    * @return - true if the script has no answers left
+    */
+   public boolean isFinished() {
+      return this.next == this.answers.length;
+   }
+
+}// end of ScriptedInput class
@@ -0,0 +1,145 @@
+/**
+ * 
+ */
+package actors;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Input source that answers from a file of pre-recorded sessions. Every line
+ * of the file holds the answers of one whole session, written as they would be
+ * typed at the console - blank lines and lines starting with # are skipped.
+ * The file is read into memory in one go and its answers are read straight out
+ * of the bytes, so thousands of sessions can be played back at full speed
+ * 
+ * A session is started with nextSession(), and asking for more answers than
+ * the current session holds is an error, just like running out of input at
+ * the console
+ * @see InputSource
+ * @author Michael Baker
+ */
+public final class SessionFileInput implements InputSource {
+   private final byte[] data;
+   private int position = 0; // next byte to read
+   private int sessionEnd = 0; // end of the current session's line
+   private int sessionNumber = 0;
+
+   /**
+    * constructor that reads a whole session file
+    * @param file - the file of sessions, one per line
+    * @throws IOException - if the file cannot be read
+    */
+   public SessionFileInput(Path file) throws IOException {
+      this(Files.readAllBytes(file));
+   }// end of SessionFileInput()
+
+   /**
+    * constructor for sessions already in memory
+    * @param data - the contents of a session file, in ASCII
+    */
+   public SessionFileInput(byte[] data) {
+      this.data = data;
+   }// end of SessionFileInput()
+
+   /**
+    * function that moves on to the next session in the file
+    * @return - true if there was another session, false at the end of the file
+    * @postcondition - any answers left in the current session are skipped
+    */
+   public boolean nextSession() {
+      this.position = this.sessionEnd;
+      while (this.position < this.data.length) {
+         // find the end of this line
+         int lineEnd = this.position;
+         while (lineEnd < this.data.length && this.data[lineEnd] != '\n') {
+            lineEnd++;
+         }
+         this.sessionEnd = lineEnd;
+         this.skipSpaces();
+         if (this.position < this.sessionEnd && this.data[this.position] != '#') {
+            this.sessionNumber++;
+            return true;
+         }
+         // blank or comment - try the next line
+         this.position = Math.min(lineEnd + 1, this.data.length);
+      }
+      this.sessionEnd = this.data.length;
+      return false;
+   }// end of nextSession()
+
+   @Override
+   public String next() {
+      int start = this.startToken();
+      while (this.position < this.sessionEnd && !isSpace(this.data[this.position])) {
+         this.position++;
+      }
+      return new String(this.data, start, this.position - start, StandardCharsets.US_ASCII);
+   }
+
+   @Override
+   public int nextInt() {
+      // read the digits in place rather than making a String for every number
+      int start = this.startToken();
+      boolean negative = this.data[this.position] == '-';
+      if (negative || this.data[this.position] == '+') {
+         this.position++;
+      }
+      long value = 0;
+      int digits = 0;
+      while (this.position < this.sessionEnd && !isSpace(this.data[this.position])) {
+         int digit = this.data[this.position++] - '0';
+         if (digit < 0 || digit > 9 || ++digits > 10) {
+            this.position = start;
+            throw new NumberFormatException("Expected a number in session " + this.sessionNumber + ": " + this.next());
+         }
+         value = value * 10 + digit;
+      }
+      value = negative ? -value : value;
+      if (digits == 0 || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE) {
+         this.position = start;
+         throw new NumberFormatException("Expected a number in session " + this.sessionNumber + ": " + this.next());
+      }
+      return (int) value;
+   }
+
+   /**
+    * function that returns the number of the current session, counting from 1
+    * @return - the session's number, or 0 before the first session
+    */
+   public int getSessionNumber() {
+      return this.sessionNumber;
+   }
+
+   /**
+    * Private function that skips to the start of the next answer in the session
+    * @return - position of the answer's first byte
+    */
+   private int startToken() {
+      this.skipSpaces();
+      if (this.position >= this.sessionEnd) {
+         throw new NoSuchElementException("Session " + this.sessionNumber + " has no answers left");
+      }
+      return this.position;
+   }
+
+   /**
+    * Private function that moves past any spaces in the session
+    */
+   private void skipSpaces() {
+      while (this.position < this.sessionEnd && isSpace(this.data[this.position])) {
+         this.position++;
+      }
+   }
+
+   /**
+    * Private function to check for a byte that separates answers
+    */
+   private static boolean isSpace(byte b) {
+      return b == ' ' || b == '\t' || b == '\r';
+   }
+
+}// end of SessionFileInput class
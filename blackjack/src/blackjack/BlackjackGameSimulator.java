@@ -7,188 +7,252 @@ package blackjack;
 
 import deck.*;
 import actors.*;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
 
 /**
  * class that contains the main function - drives the interaction between the
  * user and the blackjack game
  * @author Michael Baker
  */
-public abstract class BlackjackGameSimulator extends BlackjackLogic implements Visualizer {
-   private static Scanner inputScanner;
-   private static int numRoundsPlayed = 0;
-   private static int playersMoney = 0;
-   private static int playersBet = 0;
-   private static boolean PlayGameAgain = false;
+public abstract class BlackjackGameSimulator extends BlackjackLogic {
 
    /**
     * Main function that implements the UI and calls game functionality
-    * @param args - this function does not use any command line arguments
+    * @param args - "--quiet" skips drawing the table, for runs nobody is watching,
+    *        "--journal=FILE" records every round in a hand history file and
+    *        "--sessions=FILE" plays back a file of recorded sessions instead of
+    *        reading the console. The table's rules are set with "--h17",
+    *        "--blackjack-pays=3:2", "--decks=N" and "--penetration=0.75"
     * @precondition - does not expect any inputs
     * @postcondition - does not return any outputs
     */
-   public static void main(String[] args) {
-      // main function progression
-      do {
-         // create the Scanner object that will be used for input
-         inputScanner = new Scanner(System.in);
-
-         // create player and dealer objects
-         Player blackjackPlayer = new Player(inputScanner);
-         Dealer blackjackDealer = new Dealer();
-         GameActor[] gameActors = { blackjackDealer, blackjackPlayer };
-
-         // ***** First message to the player
-         if (numRoundsPlayed < 1) {
-            // set the player's initial funds
-            System.out.print("How much money do you have as the player? ");
-            playersMoney = inputScanner.nextInt();
+   public static void main(String[] args) throws IOException {
+      boolean quiet = false;
+      Path journal = null;
+      Path sessions = null;
+      boolean dealerHitsSoft17 = TableRules.DEFAULT.dealerHitsSoft17();
+      int[] blackjackPayout = { 1, 1 };
+      int numberOfDecks = TableRules.DEFAULT_NUMBER_OF_DECKS;
+      double penetration = TableRules.DEFAULT_PENETRATION;
+      for (String arg : args) {
+         if (arg.equals("--quiet")) {
+            quiet = true;
+         } else if (arg.startsWith("--journal=")) {
+            journal = Path.of(arg.substring("--journal=".length()));
+         } else if (arg.startsWith("--sessions=")) {
+            sessions = Path.of(arg.substring("--sessions=".length()));
+         } else if (arg.equals("--h17")) {
+            dealerHitsSoft17 = true;
+         } else if (arg.startsWith("--blackjack-pays=")) {
+            blackjackPayout = TableRules.parsePayout(arg.substring("--blackjack-pays=".length()));
+         } else if (arg.startsWith("--decks=")) {
+            numberOfDecks = Integer.parseInt(arg.substring("--decks=".length()));
+         } else if (arg.startsWith("--penetration=")) {
+            penetration = Double.parseDouble(arg.substring("--penetration=".length()));
+         }
+      }
+      TableRules rules = new TableRules(dealerHitsSoft17, blackjackPayout[0], blackjackPayout[1], numberOfDecks,
+            penetration);
+
+      try (HandHistoryJournal history = (journal == null) ? null
+            : new HandHistoryJournal(journal, (sessions == null) ? 1 : HandHistoryJournal.DEFAULT_RECORDS_PER_BATCH)) {
+         // create the shoe that we will be using for the entire game
+         DealingMachine shoe = new DealingMachine(rules.getNumberOfDecks(), rules.getPenetration(),
+               new SplittableRandom());
+
+         if (sessions != null) {
+            playSessionFile(new SessionFileInput(sessions), rules, shoe, history);
          } else {
-            // if the game has already been played before, then use the old player's money
-            System.out.println("Players money: " + playersMoney);
+            // the renderer draws the table every time the player or dealer acts
+            ConsoleRenderer renderer = new ConsoleRenderer(System.out, ConsoleRenderer.consoleSupportsAnsi());
+            renderer.setQuiet(quiet);
+            GameContext table = new GameContext();
+            table.setRules(rules);
+            table.setMetrics(GameMetrics.getPlatformInstance().newRecorder(1));
+            playSession(new ConsoleInput(), System.out, table, shoe, renderer, history);
          }
+      }
+   } // end of main
 
-         // if player has no money - kick them out of the game
-         if (playersMoney == 0) {
-            System.out.println("Player has no money! Better luck next time!");
-            return;
+   /**
+    * Static function that plays back every session in a session file through
+    * the same game loop as the console, without printing anything, and reports
+    * how they went
+    * @param sessions - the recorded sessions
+    * @param rules - the rules every session is played by
+    * @param shoe - shoe every session is dealt from
+    * @param history - hand history every round is recorded in, or null
+    * @return - number of sessions that ran out of answers or gave an answer the
+    *         game could not read
+    */
+   public static int playSessionFile(SessionFileInput sessions, TableRules rules, DealingMachine shoe,
+         HandHistoryJournal history) {
+      PrintStream nowhere = new PrintStream(OutputStream.nullOutputStream());
+      ConsoleRenderer renderer = new ConsoleRenderer(nowhere, false);
+      renderer.setQuiet(true);
+      GameContext table = new GameContext();
+      table.setRules(rules);
+      table.setMetrics(GameMetrics.getPlatformInstance().newRecorder(1));
+
+      long startTime = System.nanoTime();
+      long rounds = 0;
+      int failures = 0;
+      while (sessions.nextSession()) {
+         try {
+            rounds += playSession(sessions, nowhere, table, shoe, renderer, history);
+         } catch (RuntimeException e) {
+            if (failures++ == 0) {
+               System.out.println("Session " + sessions.getSessionNumber() + " failed: " + e.getMessage());
+            }
          }
+      }
+      double seconds = (System.nanoTime() - startTime) / 1e9;
 
-         // this gets called every loop because we make new player and dealer objects
-         // each loop
-         blackjackPlayer.addMoneyToPlayer(playersMoney);
+      System.out.println("Sessions played: " + sessions.getSessionNumber() + "\tFailed: " + failures
+            + "\tRounds played: " + rounds);
+      System.out.printf("Elapsed: %.3f s\tRounds/sec: %.0f%n", seconds, rounds / seconds);
+      return failures;
+   } // end of playSessionFile()
 
-         // player first must bet on their hand before anything else happens
-         playersBet = blackjackPlayer.bet();
-         playersMoney = blackjackPlayer.getMoney();
+   /**
+    * Static function that plays rounds with one person until they stop or run
+    * out of money - the game loop of the console
+    * @param input - where the person's answers are read from
+    * @param out - where the game's messages and prompts are printed
+    * @param table - the table the rounds are played at, whose rules decide how
+    *        the dealer plays and what the player is paid
+    * @param shoe - shoe the rounds are dealt from
+    * @param renderer - draws the table. When it is quiet the dealer is too
+    * @param history - hand history every round is recorded in, or null
+    * @return - number of rounds played
+    */
+   public static int playSession(InputSource input, PrintStream out, GameContext table, DealingMachine shoe,
+         ConsoleRenderer renderer, HandHistoryJournal history) {
+      int numRoundsPlayed = 0;
+      int playersMoney = 0;
+      int playersBet = 0;
+      boolean PlayGameAgain = false;
 
-         // create the stack deck that we will be using for the entire game
-         DealingMachine testDM = new DealingMachine();
+      MetricsRecorder metrics = table.getMetrics();
+      long bankrollReported = 0;
 
-         // first step is to deal the first two cards - what will be the players cards
-         // and see if they sum up to blackjack
-         Card[] playersInitialCards = { new Card(testDM.draw()), new Card(testDM.draw()) };
-         blackjackPlayer.setHand(playersInitialCards);
+      // create the player and dealer objects once - they are reset every round
+      Player blackjackPlayer = new Player(new ConsoleStrategy(input, out));
+      Dealer blackjackDealer = new Dealer();
+      blackjackDealer.setQuiet(renderer.isQuiet());
+      renderer.setActors(blackjackDealer, blackjackPlayer);
 
-         // if the game is not immeidately won by the player, deal two cards to the
-         // dealer
-         Card[] dealersInitialCards = { new Card(testDM.draw()), new Card(testDM.draw()) };
-         blackjackDealer.setHand(dealersInitialCards);
+      try {
+         // main function progression
+         do {
+            blackjackPlayer.reset();
+            blackjackDealer.reset();
+            // the first frame of every round is drawn in full
+            renderer.invalidate();
 
-         // assign both players to the same dealing machine
-         for (var a : gameActors) {
-            a.setDealingMachine(testDM);
-         }
+            // ***** First message to the player
+            if (numRoundsPlayed < 1) {
+               // set the player's initial funds
+               out.print("How much money do you have as the player? ");
+               playersMoney = input.nextInt();
+               blackjackPlayer.addMoneyToPlayer(playersMoney);
+               if (metrics != null) {
+                  metrics.bankrollChanged(playersMoney);
+                  bankrollReported = playersMoney;
+               }
+            } else {
+               // if the game has already been played before, then use the old player's money
+               out.println("Players money: " + playersMoney);
+            }
 
-         // check to see if the player has won immediately
-         if (BlackjackLogic.checkForWinningHand(blackjackPlayer.getHand())) {
-            BlackjackLogic.updateGameState(GAME_WON_BY_PLAYER);
-         } else {
-            // if you reach the start of the game, switch the game state to the player
-            BlackjackLogic.updateGameState(PASS_GAME_STATE_TO_PLAYER);
-         }
+            // if player has no money - kick them out of the game
+            if (playersMoney == 0) {
+               out.println("Player has no money! Better luck next time!");
+               return numRoundsPlayed;
+            }
 
-         // draw the first view of the game
-         drawTick(gameActors);
+            // player first must bet on their hand before anything else happens
+            playersBet = blackjackPlayer.bet();
+            playersMoney = blackjackPlayer.getMoney();
+            renderer.setWager(playersMoney, playersBet);
 
-         // to implement the main functionality, a do while loop will be executed
-         do {
+            // reshuffle the shoe between rounds once the cut card comes out
+            if (shoe.reshuffleIfNeeded()) {
+               out.println("Cut card reached - shuffling the shoe...");
+            }
 
-            // use switch to move between game states
-            switch (gameState) {
-            case PASS_GAME_STATE_TO_PLAYER:
-               blackjackPlayer.reason();
-               // update visuals only when the player or dealer play
-               drawTick(gameActors);
+            // play the round, redrawing the table every time the player or dealer acts
+            playRound(table, blackjackDealer, blackjackPlayer, shoe, renderer);
+            if (history != null) {
+               history.record(playersBet, blackjackPlayer.getHand(), blackjackDealer.getHand(), table.getGameState(),
+                     table.getRules().dealerHitsSoft17());
+            }
+
+            // based on game state, pay the player what the table's rules say
+            switch (table.getGameState()) {
+            case GAME_WON_BY_PLAYER:
+               out.println(blackjackPlayer.getHand().isBlackjack() ? "\nBlackjack! Player wins!" : "\nPlayer wins!");
                break;
-            case PASS_GAME_STATE_TO_DEALER:
-               blackjackDealer.reason();
-               // update visuals only when the player or dealer play
-               drawTick(gameActors);
+            case GAME_WON_BY_DEALER:
+               out.println("\nDealer wins!");
                break;
-            case PASS_GAME_STATE_TO_MAIN_LOOP:
-               BlackjackLogic.updateGameState(solveUnknownGameState(gameActors[0].getHand(), gameActors[1].getHand()));
+            case GAME_IS_A_TIE:
+               out.println("\nIt's A Tie!");
                break;
-            }
 
-         } while ((gameState != GAME_WON_BY_PLAYER) && (gameState != GAME_WON_BY_DEALER)
-               && (gameState != GAME_IS_A_TIE));
-
-         // based on game state, either return the player's money or do nothing
-         switch (gameState) {
-         case GAME_WON_BY_PLAYER:
-            System.out.println("\nPlayer wins!");
-            blackjackPlayer.addMoneyToPlayer(playersBet * 2);
-            break;
-         case GAME_WON_BY_DEALER:
-            System.out.println("\nDealer wins!");
-            break;
-         case GAME_IS_A_TIE:
-            System.out.println("\nIt's A Tie!");
-            break;
+            }
+            blackjackPlayer.addMoneyToPlayer(table.getRules().payout(table.getGameState(), playersBet,
+                  blackjackPlayer.getHand()));
 
-         }
+            // report the bet to the table's metrics
+            if (metrics != null) {
+               int returned = blackjackPlayer.getMoney() - playersMoney;
+               metrics.betSettled(playersBet, returned);
+               metrics.bankrollChanged(returned - playersBet);
+               metrics.flush();
+               bankrollReported += returned - playersBet;
+            }
 
-         // table's reference update to the player's money
-         playersMoney = blackjackPlayer.getMoney();
+            // table's reference update to the player's money
+            playersMoney = blackjackPlayer.getMoney();
 
-         // iterate on the number of rounds played
-         numRoundsPlayed++;
+            // iterate on the number of rounds played
+            numRoundsPlayed++;
 
-         // ask the player if they want to play again
-         boolean badPlayAgainInput = false;
-         do {
-            System.out.print("Play again? \n[Y]es/[N]o: ");
-            String playAgain = inputScanner.next();
-            if (!playAgain.equals("Y") && !playAgain.equals("N")) {
-               System.out.println("Enter Y to play again or N to stop playing!");
-               badPlayAgainInput = true;
-            } else {
-               switch (playAgain) {
-               case "Y":
-                  PlayGameAgain = true;
-                  break;
-               case "N":
-                  PlayGameAgain = false;
-                  break;
+            // ask the player if they want to play again
+            boolean badPlayAgainInput = false;
+            do {
+               out.print("Play again? \n[Y]es/[N]o: ");
+               String playAgain = input.next();
+               if (!playAgain.equals("Y") && !playAgain.equals("N")) {
+                  out.println("Enter Y to play again or N to stop playing!");
+                  badPlayAgainInput = true;
+               } else {
+                  switch (playAgain) {
+                  case "Y":
+                     PlayGameAgain = true;
+                     break;
+                  case "N":
+                     PlayGameAgain = false;
+                     break;
+                  }
+                  badPlayAgainInput = false;
                }
-               badPlayAgainInput = false;
-            }
-         } while (badPlayAgainInput);
+            } while (badPlayAgainInput);
 
-      } while (PlayGameAgain);
-   } // end of main
-
-   /**
-    * Public class to draw the table based off of the current game state - from
-    * Visualizer interface
-    * @param actors - array of GameActor objects, in the order Dealer, then Player
-    * @precondition expects a 2 element array of GameActor objects
-    * @postcondition Has no return, but draws the game state,
-    *                including the player and dealer's hands in the console
-    */
-   public static void drawTick(GameActor[] actors) {
-      // What does the actual game need to draw?
-      // every time the player or dealer hits and their cards update the console needs
-      // to be cleared and the new game state needs to be displayed
-
-      // print a buffer line
-      System.out.print("\n\n\n");
-
-      // print the boarder of the game
-      System.out.println(BOARDER);
-
-      int i = 0;
-      for (var a : actors) {
-         a.drawTick();
-         if (i == 0) {
-            System.out.println(TABLE);
-            i++;
+         } while (PlayGameAgain);
+      } finally {
+         // the player takes their money with them when they leave
+         if (metrics != null) {
+            metrics.bankrollChanged(-bankrollReported);
+            metrics.flush();
          }
       }
-      System.out.println(BOARDER);
-      System.out.println("Players Moeny: " + playersMoney + "\tCurrent Bet: " + playersBet);
-
-   }// end of drawTick()
+      return numRoundsPlayed;
+   } // end of playSession()
 
 }// end of BlackjackGameSimulator class
@@ -3,7 +3,12 @@
  */
 package blackjack;
 
+import actors.Dealer;
+import actors.Player;
+import actors.Visualizer;
 import deck.Card;
+import deck.DealingMachine;
+import deck.Hand;
 
 /**
  * abstract class to house logic functions for the game of blackjack. Abstract
@@ -19,7 +24,9 @@ public abstract class BlackjackLogic {
    public static final int GAME_WON_BY_PLAYER = 4;
    public static final int GAME_WON_BY_DEALER = 5;
    public static final int GAME_IS_A_TIE = 6;
-   protected static int gameState = 0;
+
+   // most players a table seats
+   public static final int MAX_SEATS = 7;
 
    /**
     * Static function that checks if the hand provided is a winner
@@ -34,6 +41,17 @@ public abstract class BlackjackLogic {
       return (handValue == 21);
    } // end of checkForWinningHand()
 
+   /**
+    * Static function that checks if the hand provided is a winner
+    * @param hand - Hand object representing an actors hand
+    * @return - Returns true of the card total is exactly equal to 21
+    * @precondition - Expects an active (not null) Hand object
+    * @postcondition - Will return a booolean type in constant time
+    */
+   public static boolean checkForWinningHand(Hand hand) {
+      return (hand.getTotal() == 21);
+   } // end of checkForWinningHand()
+
    /**
     * static function that counts the sum of the points held in the hand
     * @param hand - array of Card objects
@@ -50,43 +68,13 @@ public abstract class BlackjackLogic {
       int AceCount = 0;
 
       for (Card C : hand) {
-         switch (C.getValue()) {
-         case "10":
-         case "j":
-         case "q":
-         case "k":
-            cardSum += 10;
-            break;
-         case "9":
-            cardSum += 9;
-            break;
-         case "8":
-            cardSum += 8;
-            break;
-         case "7":
-            cardSum += 7;
-            break;
-         case "6":
-            cardSum += 6;
-            break;
-         case "5":
-            cardSum += 5;
-            break;
-         case "4":
-            cardSum += 4;
-            break;
-         case "3":
-            cardSum += 3;
-            break;
-         case "2":
-            cardSum += 2;
-            break;
-         case "a":
+         if (C.isAce()) {
             // When you add aces to the hand matters - they should only be added once all
             // other cards are added
             AceCount++;
-            break;
-
+         } else {
+            // 2-10 count their face value, J, Q and K count 10
+            cardSum += C.getRankValue();
          }
       }
 
@@ -123,23 +111,6 @@ public abstract class BlackjackLogic {
       return (cardSum);
    }// end of cardCounter()
 
-   /**
-    * public static function to be used by the player and dealer classes to
-    * announce if/when they have won
-    * @param newGameState - the value to change the game state to
-    * @precondition - The function expects that the input is one of the predefined
-    *               game states in the GameStateVariables interface
-    * @postcondition - Updates the gameState static variable shared with the
-    *                BlackjackGameSimulator
-    */
-   public static void updateGameState(int newGameState) {
-      if (newGameState > 6) {
-         throw new RuntimeException("Unrecognized game state " + newGameState + "\n");
-      } else {
-         gameState = newGameState;
-      }
-   } // end of updateGameState()
-
    /**
     * Static function to determine who has the better hand in the case that neither
     * player reaches 21
@@ -156,9 +127,31 @@ public abstract class BlackjackLogic {
    public static int solveUnknownGameState(Card[] dealerHand, Card[] playerHand) {
       // whoever has the higher number in their hand after both players stand wins
       // three possible states: dealer wins, player wins, or tie
-      int dealersCount = cardCounter(dealerHand);
-      int playersCount = cardCounter(playerHand);
+      return compareTotals(cardCounter(dealerHand), cardCounter(playerHand));
+   } // end of solveUnknownGameState()
+
+   /**
+    * Static function to determine who has the better hand in the case that neither
+    * player reaches 21
+    * @param dealerHand - Hand object that contains the Dealer's cards
+    * @param playerHand - Hand object that contains the Player's cards
+    * @return - integer containing one of the predefined game state variables
+    * @precondition - this function assumes that the dealer's hand is first and the
+    *               player's hand is second
+    * @postcondition - the output of this function will only ever be one of the
+    *                three game completion states
+    */
+   public static int solveUnknownGameState(Hand dealerHand, Hand playerHand) {
+      return compareTotals(dealerHand.getTotal(), playerHand.getTotal());
+   } // end of solveUnknownGameState()
 
+   /**
+    * Private function shared by both versions of solveUnknownGameState
+    * @param dealersCount - value of the dealer's hand
+    * @param playersCount - value of the player's hand
+    * @return - integer containing one of the three game completion states
+    */
+   private static int compareTotals(int dealersCount, int playersCount) {
       if (dealersCount == playersCount) {
          return GAME_IS_A_TIE;
       } else if (dealersCount > playersCount) {
@@ -166,6 +159,190 @@ public abstract class BlackjackLogic {
       } else {
          return GAME_WON_BY_PLAYER;
       }
-   } // end of solveUnknownGameState()
+   } // end of compareTotals()
+
+   /**
+    * Static function that plays a single round from the initial deal until the
+    * game reaches one of the three game completion states. Used by both the
+    * console game and the headless simulator so that they share the same rules
+    * @param table - GameContext of the table the round is played at
+    * @param dealer - Dealer object with no hand assigned yet - a new Dealer, or
+    *        one that has been reset() since its last round
+    * @param player - Player object with no hand assigned yet - a new Player, or
+    *        one that has been reset() since its last round
+    * @param dealingMachine - DealingMachine the round draws its cards from
+    * @param view - Visualizer that is ticked every time the player or dealer
+    *        acts, may be null when nothing should be drawn
+    * @return - integer containing one of the three game completion states
+    * @precondition - expects the player to have already placed their bet
+    * @postcondition - the game state of the table is left at the returned value,
+    *                and the round is counted by the table's metrics recorder
+    *                if it has one
+    */
+   public static int playRound(GameContext table, Dealer dealer, Player player, DealingMachine dealingMachine,
+         Visualizer view) {
+      MetricsRecorder metrics = table.getMetrics();
+      boolean timed = (metrics != null) && metrics.timeNextRound();
+      long startTime = timed ? System.nanoTime() : 0;
+      long cardsDrawnBefore = dealingMachine.getCardsDrawn();
+
+      // first step is to deal the first two cards - what will be the players cards
+      // and see if they sum up to blackjack
+      player.setHand(dealingMachine.draw(), dealingMachine.draw());
+
+      // if the game is not immeidately won by the player, deal two cards to the
+      // dealer
+      Card dealersUpcard = dealingMachine.draw();
+      dealer.setHand(dealersUpcard, dealingMachine.drawFaceDown());
+      // the dealer's first card is dealt face up
+      table.setDealerUpcard(dealersUpcard);
+
+      // seat both players at the table and assign them to the same dealing machine
+      player.setGameContext(table);
+      player.setDealingMachine(dealingMachine);
+      dealer.setGameContext(table);
+      dealer.setDealingMachine(dealingMachine);
+
+      // check to see if the player has won immediately
+      if (checkForWinningHand(player.getHand())) {
+         table.updateGameState(GAME_WON_BY_PLAYER);
+      } else {
+         // if you reach the start of the game, switch the game state to the player
+         table.updateGameState(PASS_GAME_STATE_TO_PLAYER);
+      }
+
+      // draw the first view of the game
+      if (view != null) {
+         view.drawTick();
+      }
+
+      while (!table.isRoundOver()) {
+         // use switch to move between game states
+         switch (table.getGameState()) {
+         case PASS_GAME_STATE_TO_PLAYER:
+            player.reason();
+            // update visuals only when the player or dealer play
+            if (view != null) {
+               view.drawTick();
+            }
+            break;
+         case PASS_GAME_STATE_TO_DEALER:
+            dealer.reason();
+            // update visuals only when the player or dealer play
+            if (view != null) {
+               view.drawTick();
+            }
+            break;
+         case PASS_GAME_STATE_TO_MAIN_LOOP:
+            table.updateGameState(solveUnknownGameState(dealer.getHand(), player.getHand()));
+            break;
+         default:
+            throw new RuntimeException("Round started in unexpected game state " + table.getGameState());
+         }
+      }
+      // the hole card is turned over by the time the round is settled
+      dealingMachine.revealFaceDown();
+
+      if (metrics != null) {
+         metrics.roundCompleted(table.getGameState(), timed ? System.nanoTime() - startTime : -1,
+               dealingMachine.getCardsDrawn() - cardsDrawnBefore, dealingMachine);
+      }
+      return table.getGameState();
+   } // end of playRound()
+
+   /**
+    * Static function that plays a single round at a table of several seats,
+    * dealt the way a casino deals - one card face up to each seat from the
+    * dealer's left, the dealer's upcard, a second card to each seat, then the
+    * dealer's hole card. Each seat then plays their hand in turn, and the dealer
+    * plays out their hand once, against every seat that is still standing. Each
+    * seat's hand ends the way the same hand would in the single seat
+    * playRound(): a blackjack or a 21 wins at once, a bust loses at once, and
+    * the rest are settled against the dealer's hand
+    * @param table - GameContext of the table the round is played at
+    * @param dealer - Dealer object with no hand assigned yet
+    * @param players - the players in seat order, each with no hand assigned yet
+    *        and their bet already placed
+    * @param seats - number of seats in play, from 1 to MAX_SEATS, filled from
+    *        players[0]
+    * @param dealingMachine - DealingMachine the round draws its cards from
+    * @param outcomes - filled with each seat's game completion state
+    * @return - number of seats the dealer played their hand against, 0 if every
+    *         hand was settled before the dealer had to play
+    * @postcondition - each seat's hand is counted as a round by the table's
+    *                metrics recorder if it has one. The table's game state is
+    *                left at whatever the last seat or the dealer reached
+    */
+   public static int playRound(GameContext table, Dealer dealer, Player[] players, int seats,
+         DealingMachine dealingMachine, int[] outcomes) {
+      if (seats <= 0 || seats > MAX_SEATS || seats > players.length || seats > outcomes.length) {
+         throw new RuntimeException("A table seats 1 to " + MAX_SEATS + " players, not " + seats);
+      }
+      MetricsRecorder metrics = table.getMetrics();
+      boolean timed = (metrics != null) && metrics.timeNextRound();
+      long startTime = timed ? System.nanoTime() : 0;
+      long cardsDrawnBefore = dealingMachine.getCardsDrawn();
+
+      // the deal goes round the table twice, the dealer's hole card last
+      for (int seat = 0; seat < seats; seat++) {
+         players[seat].dealCard(dealingMachine.draw());
+      }
+      Card dealersUpcard = dealingMachine.draw();
+      dealer.dealCard(dealersUpcard);
+      table.setDealerUpcard(dealersUpcard);
+      for (int seat = 0; seat < seats; seat++) {
+         players[seat].dealCard(dealingMachine.draw());
+      }
+      dealer.dealCard(dealingMachine.drawFaceDown());
+
+      dealer.setGameContext(table);
+      dealer.setDealingMachine(dealingMachine);
+
+      // every seat plays their hand in turn, until they win, bust or stand
+      int seatsStanding = 0;
+      for (int seat = 0; seat < seats; seat++) {
+         Player player = players[seat];
+         player.setGameContext(table);
+         player.setDealingMachine(dealingMachine);
+         if (checkForWinningHand(player.getHand())) {
+            table.updateGameState(GAME_WON_BY_PLAYER);
+         } else {
+            table.updateGameState(PASS_GAME_STATE_TO_PLAYER);
+            while (table.getGameState() == PASS_GAME_STATE_TO_PLAYER) {
+               player.reason();
+            }
+         }
+         outcomes[seat] = table.getGameState();
+         if (outcomes[seat] == PASS_GAME_STATE_TO_DEALER) {
+            seatsStanding++;
+         }
+      }
+
+      // one playout of the dealer's hand settles every seat still standing
+      if (seatsStanding > 0) {
+         table.updateGameState(PASS_GAME_STATE_TO_DEALER);
+         while (table.getGameState() == PASS_GAME_STATE_TO_DEALER) {
+            dealer.reason();
+         }
+         boolean dealerBust = dealer.getHand().isBust();
+         for (int seat = 0; seat < seats; seat++) {
+            if (outcomes[seat] == PASS_GAME_STATE_TO_DEALER) {
+               outcomes[seat] = dealerBust ? GAME_WON_BY_PLAYER
+                     : solveUnknownGameState(dealer.getHand(), players[seat].getHand());
+            }
+         }
+      }
+      dealingMachine.revealFaceDown();
+
+      if (metrics != null) {
+         // the round's time and cards are counted with the first seat's hand
+         metrics.roundCompleted(outcomes[0], timed ? System.nanoTime() - startTime : -1,
+               dealingMachine.getCardsDrawn() - cardsDrawnBefore, dealingMachine);
+         for (int seat = 1; seat < seats; seat++) {
+            metrics.roundCompleted(outcomes[seat], -1, 0, dealingMachine);
+         }
+      }
+      return seatsStanding;
+   } // end of playRound()
 
 } // end of BlackjackLogic class
@@ -0,0 +1,197 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import actors.GameActor;
+import actors.Visualizer;
+import java.io.PrintStream;
+
+/**
+ * class that draws the table to the console for the Visualizer interface. Each
+ * frame is composed line by line into buffers that are reused from frame to
+ * frame, and the whole frame is written with a single print and flush.
+ *
+ * On an ANSI terminal the table is kept at the top of the screen - the first
+ * frame of a round clears the screen, and every later frame moves the cursor
+ * home and rewrites only the lines that changed, then clears everything below
+ * the table so the prompts of the last move are gone. Without ANSI support each
+ * frame is printed in full below the last one. In quiet mode nothing is drawn
+ * @author Michael Baker
+ */
+public final class ConsoleRenderer implements Visualizer {
+   // ANSI control sequences
+   private static final String CLEAR_SCREEN = "\033[H\033[2J";
+   private static final String CURSOR_HOME = "\033[H";
+   private static final String CLEAR_LINE = "\033[2K";
+   private static final String CLEAR_BELOW = "\033[J";
+
+   // lines of a frame - the borders, the dealer's hand, the table's name, the
+   // player's hand and the player's money
+   private static final int NUMBER_OF_LINES = 8;
+
+   private GameActor dealer;
+   private GameActor player;
+   private final PrintStream out;
+   private final boolean ansi;
+   private boolean quiet = false;
+
+   private StringBuilder[] lines = newLines();
+   private StringBuilder[] previousLines = newLines();
+   private final StringBuilder frame = new StringBuilder(512);
+   private boolean fullRedraw = true;
+
+   private int playersMoney = 0;
+   private int playersBet = 0;
+
+   /**
+    * Constructor for a renderer that draws one dealer and one player
+    * @param out - stream the frames are written to
+    * @param ansi - true if the console understands ANSI cursor control
+    * @precondition - expects an active (not null) PrintStream reference
+    */
+   public ConsoleRenderer(PrintStream out, boolean ansi) {
+      this.out = out;
+      this.ansi = ansi;
+   } // end Constructor
+
+   /**
+    * Static function that guesses whether standard out is an interactive console
+    * that understands ANSI cursor control
+    * @return - true if frames can be redrawn in place
+    */
+   public static boolean consoleSupportsAnsi() {
+      String term = System.getenv("TERM");
+      return (System.console() != null) && (term != null) && !term.equals("dumb");
+   } // end consoleSupportsAnsi()
+
+   /**
+    * Visualizer function that draws the current state of the table
+    * @precondition - the actors have been dealt their hands
+    * @postcondition - has no return, the frame is on the console unless the
+    *                renderer is quiet
+    */
+   @Override
+   public void drawTick() {
+      if (this.quiet) {
+         return;
+      }
+
+      this.composeLines();
+      this.frame.setLength(0);
+      if (!this.ansi) {
+         // print a buffer line and the whole frame, as the table always has
+         this.frame.append("\n\n\n");
+         for (StringBuilder line : this.lines) {
+            this.frame.append(line).append('\n');
+         }
+      } else if (this.fullRedraw) {
+         this.frame.append(CLEAR_SCREEN);
+         for (StringBuilder line : this.lines) {
+            this.frame.append(line).append('\n');
+         }
+         this.fullRedraw = false;
+      } else {
+         this.frame.append(CURSOR_HOME);
+         for (int i = 0; i < NUMBER_OF_LINES; i++) {
+            if (this.lines[i].compareTo(this.previousLines[i]) != 0) {
+               this.frame.append(CLEAR_LINE).append(this.lines[i]);
+            }
+            this.frame.append('\n');
+         }
+         this.frame.append(CLEAR_BELOW);
+      }
+
+      this.out.print(this.frame);
+      this.out.flush();
+
+      // keep this frame to compare the next one against
+      StringBuilder[] swap = this.previousLines;
+      this.previousLines = this.lines;
+      this.lines = swap;
+   } // end drawTick()
+
+   /**
+    * public function that makes the next frame clear the screen and draw every
+    * line, called at the start of each round and after anything else may have
+    * scrolled the console
+    */
+   public void invalidate() {
+      this.fullRedraw = true;
+   } // end invalidate()
+
+   /**
+    * public getter for quiet mode
+    * @return - true if drawTick() draws nothing
+    */
+   public boolean isQuiet() {
+      return this.quiet;
+   } // end isQuiet()
+
+   /***************
+    **** Setters
+    ***************/
+   /**
+    * Setter function for the actors drawn at the table - the next frame is drawn
+    * in full
+    * @param dealer - the dealer at the table
+    * @param player - the player at the table
+    * @precondition - expects active (not null) references
+    */
+   public void setActors(GameActor dealer, GameActor player) {
+      this.dealer = dealer;
+      this.player = player;
+      this.invalidate();
+   } // end setActors()
+
+   /**
+    * Setter function for the money and bet shown under the table
+    * @param playersMoney - money the player has left
+    * @param playersBet - the player's bet this round
+    */
+   public void setWager(int playersMoney, int playersBet) {
+      this.playersMoney = playersMoney;
+      this.playersBet = playersBet;
+   } // end setWager()
+
+   /**
+    * Setter function for quiet mode, used for runs that nobody is watching
+    * @param quiet - true if drawTick() should draw nothing
+    */
+   public void setQuiet(boolean quiet) {
+      this.quiet = quiet;
+   } // end setQuiet()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that writes every line of the current frame into the
+    * line buffers
+    */
+   private void composeLines() {
+      for (StringBuilder line : this.lines) {
+         line.setLength(0);
+      }
+      this.lines[0].append(BOARDER);
+      this.dealer.appendHand(this.lines[1]);
+      // the table's name is framed by a blank line on either side
+      this.lines[3].append(TABLE, 1, TABLE.length() - 1);
+      this.player.appendHand(this.lines[5]);
+      this.lines[6].append(BOARDER);
+      this.lines[7].append("Players Moeny: ").append(this.playersMoney).append("\tCurrent Bet: ")
+            .append(this.playersBet);
+   } // end composeLines()
+
+   /**
+    * Private function that creates a set of empty line buffers
+    */
+   private static StringBuilder[] newLines() {
+      StringBuilder[] lines = new StringBuilder[NUMBER_OF_LINES];
+      for (int i = 0; i < NUMBER_OF_LINES; i++) {
+         lines[i] = new StringBuilder(80);
+      }
+      return lines;
+   } // end newLines()
+
+}// end of ConsoleRenderer class
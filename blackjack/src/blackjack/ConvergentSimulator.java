@@ -0,0 +1,322 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import actors.PlayerStrategy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * class that simulates a table until the house edge is known as precisely as
+ * asked, instead of for a fixed number of rounds. Rounds are played in batches
+ * spread over a pool of workers, and between batches the workers' statistics
+ * are merged and the 95% confidence interval of the house edge is checked. The
+ * run stops as soon as the interval is narrow enough, or when its round or
+ * time budget runs out.
+ *
+ * Each batch is sized from the standard error so far to be just enough to
+ * reach the target, but never more than the rounds already played, so an
+ * early estimate can't send the run far past the target, nor more than
+ * MAX_BATCH_ROUNDS, so a listener hears how the run is going every few
+ * seconds and a cancelled run stops soon after. Every worker keeps
+ * its own generator from batch to batch, so a seed always plays the same
+ * rounds and stops at the same point - unless the time budget stops it first
+ * @author Michael Baker
+ */
+public final class ConvergentSimulator {
+   // why a run stopped
+   public static final int STOPPED_AT_TARGET = 1;
+   public static final int STOPPED_AT_ROUND_BUDGET = 2;
+   public static final int STOPPED_AT_TIME_BUDGET = 3;
+   public static final int STOPPED_BY_CANCEL = 4;
+
+   // two sided 95% quantile of the normal distribution
+   public static final double Z_95 = 1.959964;
+   public static final long DEFAULT_FIRST_BATCH_ROUNDS = 1L << 18;
+   public static final long MAX_BATCH_ROUNDS = 1L << 22;
+
+   private final TableRules rules;
+   private final PlayerStrategy strategy;
+   private final int threads;
+   private final double targetHalfWidth;
+   private final long maxRounds;
+   private final long maxNanos;
+   private final long firstBatchRounds;
+
+   private Consumer<RoundStatistics> batchListener = null;
+   private volatile boolean cancelled = false;
+   private int stopReason = 0;
+   private int batches = 0;
+   private long elapsedNanos = 0;
+
+   /**
+    * Constructor for a simulation
+    * @param rules - the rules every worker's table plays by
+    * @param strategy - strategy every automated player uses. Shared between the
+    *        workers, so it must not keep any state
+    * @param threads - number of workers
+    * @param targetHalfWidth - half the width of the 95% confidence interval of
+    *        the house edge to stop at, 0.0001 for +/-0.01%
+    * @param maxRounds - most rounds to play before giving up on the target
+    * @param maxNanos - most time to spend before giving up on the target
+    * @param firstBatchRounds - rounds played before the first check
+    * @precondition - expects positive threads, target and budgets
+    */
+   public ConvergentSimulator(TableRules rules, PlayerStrategy strategy, int threads, double targetHalfWidth,
+         long maxRounds, long maxNanos, long firstBatchRounds) {
+      if (threads <= 0 || !(targetHalfWidth > 0.0) || maxRounds <= 0 || maxNanos <= 0 || firstBatchRounds <= 0) {
+         throw new RuntimeException("Threads, the target, the budgets and the first batch must all be positive");
+      }
+      this.rules = rules;
+      this.strategy = strategy;
+      this.threads = threads;
+      this.targetHalfWidth = targetHalfWidth;
+      this.maxRounds = maxRounds;
+      this.maxNanos = maxNanos;
+      this.firstBatchRounds = firstBatchRounds;
+   } // end Constructor
+
+   /**
+    * Main function for runs to a target precision
+    * @param args - options, each optional: "--target=0.0001" half width of the
+    *        95% interval (a trailing % reads it as a percentage, so
+    *        "--target=0.01%" is the same), "--max-rounds=N", "--max-seconds=N",
+    *        "--seed=N", "--threads=N", "--strategy=basic|dealer" and the rules -
+    *        "--h17", "--blackjack-pays=3:2", "--decks=N" and "--penetration=F"
+    * @postcondition - prints the house edge and the precision reached
+    */
+   public static void main(String[] args) {
+      double target = 0.001;
+      long maxRounds = 10_000_000_000L;
+      double maxSeconds = 3600;
+      long seed = System.nanoTime();
+      int threads = Runtime.getRuntime().availableProcessors();
+      String strategyName = "basic";
+      boolean dealerHitsSoft17 = false;
+      int[] blackjackPayout = { 3, 2 };
+      int numberOfDecks = TableRules.DEFAULT_NUMBER_OF_DECKS;
+      double penetration = TableRules.DEFAULT_PENETRATION;
+      for (String arg : args) {
+         String value = arg.substring(arg.indexOf('=') + 1);
+         if (arg.startsWith("--target=")) {
+            target = value.endsWith("%") ? Double.parseDouble(value.substring(0, value.length() - 1)) / 100
+                  : Double.parseDouble(value);
+         } else if (arg.startsWith("--max-rounds=")) {
+            maxRounds = Long.parseLong(value);
+         } else if (arg.startsWith("--max-seconds=")) {
+            maxSeconds = Double.parseDouble(value);
+         } else if (arg.startsWith("--seed=")) {
+            seed = Long.parseLong(value);
+         } else if (arg.startsWith("--threads=")) {
+            threads = Integer.parseInt(value);
+         } else if (arg.startsWith("--strategy=")) {
+            strategyName = value;
+         } else if (arg.equals("--h17")) {
+            dealerHitsSoft17 = true;
+         } else if (arg.startsWith("--blackjack-pays=")) {
+            blackjackPayout = TableRules.parsePayout(value);
+         } else if (arg.startsWith("--decks=")) {
+            numberOfDecks = Integer.parseInt(value);
+         } else if (arg.startsWith("--penetration=")) {
+            penetration = Double.parseDouble(value);
+         } else {
+            throw new RuntimeException("Unknown option " + arg);
+         }
+      }
+      TableRules rules = new TableRules(dealerHitsSoft17, blackjackPayout[0], blackjackPayout[1], numberOfDecks,
+            penetration);
+
+      ConvergentSimulator simulator = new ConvergentSimulator(rules, HeadlessSimulator.strategyFor(strategyName),
+            threads, target, maxRounds, (long) (maxSeconds * 1e9), DEFAULT_FIRST_BATCH_ROUNDS);
+      // register the metrics MBean now so its start up isn't timed with the rounds
+      GameMetrics.getPlatformInstance();
+      RoundStatistics statistics = simulator.run(seed);
+      double seconds = simulator.getElapsedNanos() / 1e9;
+
+      System.out.println("Rules: " + rules + "\tStrategy: " + strategyName + "\tSeed: " + seed + "\tThreads: "
+            + threads);
+      System.out.printf("Rounds played: %d in %d batches\tElapsed: %.3f s\tHands/sec: %.0f%n",
+            statistics.getRounds(), simulator.getBatches(), seconds, statistics.getRounds() / seconds);
+      System.out.printf("House edge: %.4f%% +/- %.4f%% (95%%)\tTarget: +/- %.4f%%%n",
+            -100.0 * statistics.getMeanNet(), 100.0 * halfWidth(statistics), 100.0 * target);
+      switch (simulator.getStopReason()) {
+      case STOPPED_AT_TARGET:
+         System.out.println("Stopped: target reached");
+         break;
+      case STOPPED_AT_ROUND_BUDGET:
+         System.out.println("Stopped: round budget of " + maxRounds + " used up before the target was reached");
+         break;
+      case STOPPED_AT_TIME_BUDGET:
+         System.out.println("Stopped: time budget of " + maxSeconds + " s used up before the target was reached");
+         break;
+      }
+   } // end of main
+
+   /**
+    * public function that plays batches of rounds until the target or a budget
+    * is reached
+    * @param seed - seed the workers' generators are split from
+    * @return - statistics of every round played
+    * @postcondition - getStopReason(), getBatches() and getElapsedNanos()
+    *                describe the run
+    */
+   public RoundStatistics run(long seed) {
+      long startTime = System.nanoTime();
+      SplittableRandom seeds = new SplittableRandom(seed);
+      SplittableRandom[] workerRandoms = new SplittableRandom[this.threads];
+      for (int i = 0; i < this.threads; i++) {
+         workerRandoms[i] = seeds.split();
+      }
+
+      RoundStatistics statistics = new RoundStatistics();
+      this.batches = 0;
+      ExecutorService pool = Executors.newFixedThreadPool(this.threads);
+      try {
+         while (true) {
+            long batchRounds = this.nextBatchRounds(statistics, System.nanoTime() - startTime);
+            this.playBatch(pool, workerRandoms, batchRounds, statistics);
+            this.batches++;
+
+            this.elapsedNanos = System.nanoTime() - startTime;
+            if (this.batchListener != null) {
+               this.batchListener.accept(statistics);
+            }
+            if (this.cancelled) {
+               this.stopReason = STOPPED_BY_CANCEL;
+               break;
+            } else if (halfWidth(statistics) <= this.targetHalfWidth) {
+               this.stopReason = STOPPED_AT_TARGET;
+               break;
+            } else if (statistics.getRounds() >= this.maxRounds) {
+               this.stopReason = STOPPED_AT_ROUND_BUDGET;
+               break;
+            } else if (this.elapsedNanos >= this.maxNanos) {
+               this.stopReason = STOPPED_AT_TIME_BUDGET;
+               break;
+            }
+         }
+      } finally {
+         pool.shutdownNow();
+      }
+      return statistics;
+   } // end run()
+
+   /**
+    * public function that asks a run to stop. The run stops once the batch it
+    * is playing is finished, and returns the rounds played so far
+    * @postcondition - may be called from any thread
+    */
+   public void cancel() {
+      this.cancelled = true;
+   } // end cancel()
+
+   /**
+    * public function that sets what to call after every batch
+    * @param batchListener - called on the running thread with the statistics of
+    *        every round played so far, which it must not keep or change - or
+    *        null to stop calling anything
+    */
+   public void setBatchListener(Consumer<RoundStatistics> batchListener) {
+      this.batchListener = batchListener;
+   } // end setBatchListener()
+
+   /**
+    * Static function for the precision of a house edge estimate
+    * @param statistics - statistics of the rounds played so far
+    * @return - half the width of the 95% confidence interval of the house edge
+    */
+   public static double halfWidth(RoundStatistics statistics) {
+      return Z_95 * statistics.getStandardError();
+   } // end halfWidth()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for why the last run stopped
+    * @return - STOPPED_AT_TARGET, STOPPED_AT_ROUND_BUDGET,
+    *         STOPPED_AT_TIME_BUDGET or STOPPED_BY_CANCEL, or 0 before the first
+    *         run
+    */
+   public int getStopReason() {
+      return this.stopReason;
+   }
+
+   /**
+    * public getter for the number of batches the last run played
+    * @return - number of batches
+    */
+   public int getBatches() {
+      return this.batches;
+   }
+
+   /**
+    * public getter for how long the last run took
+    * @return - elapsed time in nanoseconds
+    */
+   public long getElapsedNanos() {
+      return this.elapsedNanos;
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that sizes the next batch - enough rounds to reach the
+    * target if the standard deviation holds, but no more than have been played
+    * or MAX_BATCH_ROUNDS, nor more than the budgets leave room for
+    * @param statistics - statistics of the rounds played so far
+    * @param elapsedNanos - time spent so far
+    * @return - number of rounds to play in the next batch
+    */
+   private long nextBatchRounds(RoundStatistics statistics, long elapsedNanos) {
+      long played = statistics.getRounds();
+      if (played == 0) {
+         return Math.min(this.firstBatchRounds, this.maxRounds);
+      }
+      // the standard error shrinks with the square root of the rounds played
+      double ratio = halfWidth(statistics) / this.targetHalfWidth;
+      double needed = played * (ratio * ratio) - played;
+      long rounds = (long) Math.min(Math.min(Math.max(needed, this.firstBatchRounds), played), MAX_BATCH_ROUNDS);
+
+      // don't run past the time budget at the rate seen so far
+      double nanosPerRound = (double) elapsedNanos / played;
+      long roundsLeftInTime = (long) ((this.maxNanos - elapsedNanos) / nanosPerRound);
+      rounds = Math.min(rounds, Math.max(roundsLeftInTime, this.firstBatchRounds));
+      return Math.max(1, Math.min(rounds, this.maxRounds - played));
+   } // end nextBatchRounds()
+
+   /**
+    * Private function that plays one batch, split evenly over the workers, and
+    * adds the workers' statistics to the run's in the order of the workers
+    */
+   private void playBatch(ExecutorService pool, SplittableRandom[] workerRandoms, long batchRounds,
+         RoundStatistics statistics) {
+      List<Future<RoundStatistics>> workers = new ArrayList<>(this.threads);
+      try {
+         for (int i = 0; i < this.threads; i++) {
+            // spread any remainder over the first workers
+            long workerRounds = batchRounds / this.threads + ((i < batchRounds % this.threads) ? 1 : 0);
+            SplittableRandom workerRandom = workerRandoms[i];
+            workers.add(pool.submit(() -> (workerRounds == 0) ? new RoundStatistics()
+                  : HeadlessSimulator.playRounds(workerRounds, workerRandom, this.rules, this.strategy, null)));
+         }
+         for (var w : workers) {
+            statistics.merge(w.get());
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Simulation was interrupted", e);
+      } catch (ExecutionException e) {
+         throw new RuntimeException("Simulation worker failed", e.getCause());
+      }
+   } // end playBatch()
+
+}// end of ConvergentSimulator class
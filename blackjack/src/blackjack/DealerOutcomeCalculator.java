@@ -0,0 +1,220 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.Card;
+import deck.ShoeState;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * class that computes the exact probability of every way the dealer's hand can
+ * finish, given the dealer's upcard and the cards left to draw from. The dealer
+ * plays as Dealer.reason() does - hitting below 17, hitting a soft 17 when the
+ * table's rules say so, and standing on every other 17 - and each distribution
+ * is kept in a bounded least recently used cache keyed on the upcard, the soft
+ * 17 rule and the composition of the cards left, so repeated questions within a
+ * shoe are answered without replaying the dealer's hand
+ *
+ * A calculator is not thread safe - every table or simulation worker should use
+ * its own
+ * @author Michael Baker
+ */
+public final class DealerOutcomeCalculator {
+   // indexes into a distribution
+   public static final int DEALER_FINISHES_ON_17 = 0;
+   public static final int DEALER_FINISHES_ON_18 = 1;
+   public static final int DEALER_FINISHES_ON_19 = 2;
+   public static final int DEALER_FINISHES_ON_20 = 3;
+   public static final int DEALER_FINISHES_ON_21 = 4;
+   public static final int DEALER_BUSTS = 5;
+   public static final int DEALER_HAS_BLACKJACK = 6;
+   public static final int NUMBER_OF_OUTCOMES = 7;
+
+   public static final int DEFAULT_CACHE_SIZE = 4096;
+
+   // a packed composition gives every rank value 6 bits and ten-valued cards 8
+   // bits, which is enough for up to 15 decks
+   private static final int RANK_BITS = 6;
+   private static final int TEN_BITS = 8;
+   // the bit above a packed composition marks a distribution played under H17
+   private static final long HITS_SOFT_17_KEY = 1L << (RANK_BITS * (Card.NUMBER_OF_RANK_VALUES - 1) + TEN_BITS);
+
+   private final List<Map<Long, double[]>> cache;
+   private final int cacheSizePerUpcard;
+   private long cacheHits = 0;
+   private long cacheMisses = 0;
+   private final int[] rankCounts = new int[Card.NUMBER_OF_RANK_VALUES];
+
+   /**
+    * Constructor for a calculator with the default cache size
+    */
+   public DealerOutcomeCalculator() {
+      this(DEFAULT_CACHE_SIZE);
+   } // end Constructor
+
+   /**
+    * Constructor for a calculator that keeps at most the given number of
+    * distributions
+    * @param cacheSize - maximum number of distributions kept in the cache
+    * @precondition - expects a positive integer
+    */
+   public DealerOutcomeCalculator(int cacheSize) {
+      if (cacheSize <= 0) {
+         throw new RuntimeException("The cache must be able to hold at least one distribution");
+      }
+      // one cache per upcard value keeps the key down to a single packed long
+      this.cacheSizePerUpcard = Math.max(1, cacheSize / Card.NUMBER_OF_RANK_VALUES);
+      this.cache = new ArrayList<>(Card.NUMBER_OF_RANK_VALUES);
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES; i++) {
+         this.cache.add(new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, double[]> eldest) {
+               return size() > DealerOutcomeCalculator.this.cacheSizePerUpcard;
+            }
+         });
+      }
+   } // end Constructor
+
+   /**
+    * public function that computes the dealer's final outcome distribution for an
+    * upcard, drawing every other card from the cards the player hasn't seen -
+    * the cards left in the shoe and a hole card dealt face down
+    * @param upcard - the dealer's face up card
+    * @param shoe - state of the shoe whose unseen cards the dealer draws from
+    * @param dealerHitsSoft17 - true if the dealer hits a soft 17 (H17)
+    * @param distribution - array of NUMBER_OF_OUTCOMES doubles to fill
+    * @precondition - the upcard has already been drawn from the shoe, and the
+    *               hole card with drawFaceDown() if it has been dealt
+    * @postcondition - the array holds the probability of each outcome
+    */
+   public void getDistribution(Card upcard, ShoeState shoe, boolean dealerHitsSoft17, double[] distribution) {
+      shoe.getUnseenRankCounts(this.rankCounts);
+      this.getDistribution(upcard.getRankValue(), this.rankCounts, dealerHitsSoft17, distribution);
+   } // end getDistribution()
+
+   /**
+    * public function that computes the dealer's final outcome distribution for an
+    * upcard value and a composition of cards to draw from
+    * @param upcardValue - point value of the dealer's upcard, 1 for an ace
+    * @param rankCounts - number of cards left of each point value, index 0 being
+    *        aces and index 9 ten-valued cards. Left unchanged
+    * @param dealerHitsSoft17 - true if the dealer hits a soft 17 (H17)
+    * @param distribution - array of NUMBER_OF_OUTCOMES doubles to fill
+    * @precondition - the composition does not include the upcard, but does
+    *               include the hole card
+    * @postcondition - the array holds the probability of each outcome. If the
+    *                cards run out while the dealer still has to hit, the
+    *                remaining probability is left out
+    */
+   public void getDistribution(int upcardValue, int[] rankCounts, boolean dealerHitsSoft17, double[] distribution) {
+      long key = packComposition(rankCounts);
+      if (key >= 0 && dealerHitsSoft17) {
+         key |= HITS_SOFT_17_KEY;
+      }
+      double[] cached = (key >= 0) ? this.cache.get(upcardValue - 1).get(key) : null;
+
+      if (cached == null) {
+         this.cacheMisses++;
+         cached = new double[NUMBER_OF_OUTCOMES];
+         int remaining = 0;
+         for (int count : rankCounts) {
+            remaining += count;
+         }
+         int[] counts = rankCounts.clone();
+         playOut(upcardValue, upcardValue == 1, 1, counts, remaining, 1.0, dealerHitsSoft17, cached);
+         if (key >= 0) {
+            this.cache.get(upcardValue - 1).put(key, cached);
+         }
+      } else {
+         this.cacheHits++;
+      }
+
+      System.arraycopy(cached, 0, distribution, 0, NUMBER_OF_OUTCOMES);
+   } // end getDistribution()
+
+   /**
+    * Static function that packs a composition into a single long
+    * @param rankCounts - number of cards left of each point value
+    * @return - the packed composition, or -1 if a count is too large to pack
+    */
+   public static long packComposition(int[] rankCounts) {
+      long key = 0;
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES - 1; i++) {
+         if (rankCounts[i] >= (1 << RANK_BITS)) {
+            return -1;
+         }
+         key = (key << RANK_BITS) | rankCounts[i];
+      }
+      if (rankCounts[Card.NUMBER_OF_RANK_VALUES - 1] >= (1 << TEN_BITS)) {
+         return -1;
+      }
+      return (key << TEN_BITS) | rankCounts[Card.NUMBER_OF_RANK_VALUES - 1];
+   } // end packComposition()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the number of questions answered from the cache
+    * @return - number of cache hits
+    */
+   public long getCacheHits() {
+      return this.cacheHits;
+   }
+
+   /**
+    * public getter for the number of distributions that had to be computed
+    * @return - number of cache misses
+    */
+   public long getCacheMisses() {
+      return this.cacheMisses;
+   }
+
+   /**
+    * Private function that plays the dealer's hand out over every card that can
+    * be drawn, adding the probability of each finish to the distribution
+    * @param hardTotal - value of the hand with aces counted as 1
+    * @param hasAce - true if the hand holds an ace
+    * @param cardsInHand - number of cards in the hand
+    * @param counts - cards left of each point value, restored before returning
+    * @param remaining - total number of cards left
+    * @param probability - probability of reaching this hand
+    * @param dealerHitsSoft17 - true if the dealer hits a soft 17
+    * @param distribution - distribution being filled
+    */
+   private static void playOut(int hardTotal, boolean hasAce, int cardsInHand, int[] counts, int remaining,
+         double probability, boolean dealerHitsSoft17, double[] distribution) {
+      if (hardTotal > 21) {
+         distribution[DEALER_BUSTS] += probability;
+         return;
+      }
+
+      int total = (hasAce && hardTotal + 10 <= 21) ? hardTotal + 10 : hardTotal;
+      if (total == 21 && cardsInHand == 2) {
+         distribution[DEALER_HAS_BLACKJACK] += probability;
+         return;
+      } else if (total >= 17 && !(dealerHitsSoft17 && total == 17 && hasAce && hardTotal + 10 == 17)) {
+         distribution[DEALER_FINISHES_ON_17 + total - 17] += probability;
+         return;
+      }
+
+      // the dealer has to hit - try every point value still in the shoe
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES; i++) {
+         if (counts[i] == 0) {
+            continue;
+         }
+         double drawProbability = probability * counts[i] / remaining;
+         counts[i]--;
+         playOut(hardTotal + i + 1, hasAce || i == 0, cardsInHand + 1, counts, remaining - 1, drawProbability,
+               dealerHitsSoft17, distribution);
+         counts[i]++;
+      }
+   } // end playOut()
+
+}// end of DealerOutcomeCalculator class
@@ -0,0 +1,267 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import actors.PlayerStrategy;
+import deck.Card;
+import deck.Hand;
+import deck.ShoeState;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * class that computes the exact expected value of hitting and of standing for
+ * the player's hand against the dealer's upcard, given the exact cards left to
+ * draw from. Values are in units of the player's bet and follow the rules of
+ * this game - a player who reaches 21 wins at once, a player who busts loses,
+ * and a player who stands wins if the dealer busts or finishes lower. A tie is
+ * scored as a push, and the dealer plays by the table's soft 17 rule
+ *
+ * Hitting is solved by recursion over the cards that can be drawn, with the
+ * value of every position remembered in a bounded least recently used memo
+ * keyed on the packed composition, the player's hand and the soft 17 rule, so a
+ * position reached by several orders of cards is only solved once and S17 and
+ * H17 values are never mixed. A solver is not thread safe -
+ * every thread should use its own
+ * @author Michael Baker
+ */
+public final class ExpectedValueSolver {
+   // indexes into the values array filled by evaluate()
+   public static final int STAND_VALUE = 0;
+   public static final int HIT_VALUE = 1;
+
+   public static final int DEFAULT_MEMO_SIZE = 1 << 18;
+
+   // bit of a position's hand key set when the dealer hits a soft 17, above the
+   // upcard value
+   private static final int HITS_SOFT_17_KEY = 1 << 10;
+
+   /**
+    * Key of a memoized position - the cards left and the player's hand
+    */
+   private record Position(long composition, int hand) {
+   }
+
+   private final Map<Position, Double> memo;
+   private final DealerOutcomeCalculator dealerOutcomes;
+   private final double[] dealerDistribution = new double[DealerOutcomeCalculator.NUMBER_OF_OUTCOMES];
+   private final int[] rankCounts = new int[Card.NUMBER_OF_RANK_VALUES];
+
+   /**
+    * Constructor for a solver with the default memo size
+    */
+   public ExpectedValueSolver() {
+      this(DEFAULT_MEMO_SIZE);
+   } // end Constructor
+
+   /**
+    * Constructor for a solver that remembers at most the given number of
+    * positions. The dealer outcome cache is sized to match
+    * @param memoSize - maximum number of positions kept
+    * @precondition - expects a positive integer
+    */
+   public ExpectedValueSolver(int memoSize) {
+      if (memoSize <= 0) {
+         throw new RuntimeException("The memo must be able to hold at least one position");
+      }
+      this.memo = new LinkedHashMap<>(1024, 0.75f, true) {
+         private static final long serialVersionUID = 1L;
+
+         @Override
+         protected boolean removeEldestEntry(Map.Entry<Position, Double> eldest) {
+            return size() > memoSize;
+         }
+      };
+      this.dealerOutcomes = new DealerOutcomeCalculator(memoSize);
+   } // end Constructor
+
+   /**
+    * public function that evaluates a hand against the cards the player hasn't
+    * seen. A hole card the shoe dealt face down is counted with them, as the
+    * player can't tell it from the cards still in the shoe
+    * @param playerHand - array of Card objects in the player's hand
+    * @param dealerUpcard - the dealer's face up card
+    * @param shoe - state of the shoe the rest of the round is drawn from
+    * @param rules - rules of the table, for the dealer's soft 17 rule
+    * @param values - array of two doubles, filled with the value of standing and
+    *        of hitting and then playing on perfectly
+    * @precondition - the player's cards and the upcard have already been drawn
+    *               from the shoe, the hole card either with drawFaceDown() or
+    *               not yet, and the hand is worth less than 21
+    * @postcondition - the values are in units of the bet
+    */
+   public void evaluate(Card[] playerHand, Card dealerUpcard, ShoeState shoe, TableRules rules, double[] values) {
+      shoe.getUnseenRankCounts(this.rankCounts);
+      this.evaluate(playerHand, dealerUpcard, this.rankCounts, rules, values);
+   } // end evaluate()
+
+   /**
+    * public function that evaluates a hand against a composition of unseen cards
+    * @param playerHand - array of Card objects in the player's hand
+    * @param dealerUpcard - the dealer's face up card
+    * @param rankCounts - number of unseen cards of each point value, index 0
+    *        being aces and index 9 ten-valued cards. Left unchanged
+    * @param rules - rules of the table, for the dealer's soft 17 rule
+    * @param values - array of two doubles, filled with the value of standing and
+    *        of hitting and then playing on perfectly
+    * @precondition - the composition does not include the player's cards or the
+    *               upcard but does include the dealer's hole card, and the hand
+    *               is worth less than 21
+    * @postcondition - the values are in units of the bet
+    */
+   public void evaluate(Card[] playerHand, Card dealerUpcard, int[] rankCounts, TableRules rules, double[] values) {
+      int hardTotal = 0;
+      boolean hasAce = false;
+      for (Card C : playerHand) {
+         hardTotal += C.getRankValue();
+         hasAce |= C.isAce();
+      }
+      this.evaluate(hardTotal, hasAce, dealerUpcard.getRankValue(), rankCounts, rules.dealerHitsSoft17(), values);
+   } // end evaluate()
+
+   /**
+    * public function that evaluates a Hand against the cards the player hasn't
+    * seen, the face down hole card included
+    * @param playerHand - the player's hand
+    * @param dealerUpcard - the dealer's face up card
+    * @param shoe - state of the shoe the rest of the round is drawn from
+    * @param rules - rules of the table, for the dealer's soft 17 rule
+    * @param values - array of two doubles, filled with the value of standing and
+    *        of hitting and then playing on perfectly
+    * @precondition - same as the Card[] version
+    */
+   public void evaluate(Hand playerHand, Card dealerUpcard, ShoeState shoe, TableRules rules, double[] values) {
+      shoe.getUnseenRankCounts(this.rankCounts);
+      this.evaluate(playerHand.getHardTotal(), playerHand.getAceCount() > 0, dealerUpcard.getRankValue(),
+            this.rankCounts, rules.dealerHitsSoft17(), values);
+   } // end evaluate()
+
+   /**
+    * public function that picks the better move for a hand
+    * @param values - array filled by evaluate()
+    * @return - PlayerStrategy.HIT or PlayerStrategy.STAND
+    */
+   public static int bestMove(double[] values) {
+      return (values[HIT_VALUE] > values[STAND_VALUE]) ? PlayerStrategy.HIT : PlayerStrategy.STAND;
+   } // end bestMove()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the number of positions currently remembered
+    * @return - size of the memo
+    */
+   public int getMemoSize() {
+      return this.memo.size();
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function shared by the public versions of evaluate
+    */
+   private void evaluate(int hardTotal, boolean hasAce, int upcardValue, int[] rankCounts, boolean dealerHitsSoft17,
+         double[] values) {
+      if (total(hardTotal, hasAce) >= 21) {
+         throw new RuntimeException("The player only makes a decision on hands worth less than 21");
+      }
+      int remaining = 0;
+      for (int count : rankCounts) {
+         remaining += count;
+      }
+      int[] counts = rankCounts.clone();
+      values[STAND_VALUE] = this.standValue(total(hardTotal, hasAce), upcardValue, counts, dealerHitsSoft17);
+      values[HIT_VALUE] = this.hitValue(hardTotal, hasAce, upcardValue, counts, remaining, dealerHitsSoft17);
+   } // end evaluate()
+
+   /**
+    * Private function for the value of standing, read off the dealer's outcome
+    * distribution
+    */
+   private double standValue(int playerTotal, int upcardValue, int[] counts, boolean dealerHitsSoft17) {
+      this.dealerOutcomes.getDistribution(upcardValue, counts, dealerHitsSoft17, this.dealerDistribution);
+
+      // the dealer wins outright with 21, and the player can't stand on 21 here
+      double value = this.dealerDistribution[DealerOutcomeCalculator.DEALER_BUSTS]
+            - this.dealerDistribution[DealerOutcomeCalculator.DEALER_HAS_BLACKJACK]
+            - this.dealerDistribution[DealerOutcomeCalculator.DEALER_FINISHES_ON_21];
+      for (int dealerTotal = 17; dealerTotal <= 20; dealerTotal++) {
+         double p = this.dealerDistribution[DealerOutcomeCalculator.DEALER_FINISHES_ON_17 + dealerTotal - 17];
+         if (playerTotal > dealerTotal) {
+            value += p;
+         } else if (playerTotal < dealerTotal) {
+            value -= p;
+         }
+      }
+      return value;
+   } // end standValue()
+
+   /**
+    * Private function for the value of taking one card and then playing on
+    * perfectly
+    */
+   private double hitValue(int hardTotal, boolean hasAce, int upcardValue, int[] counts, int remaining,
+         boolean dealerHitsSoft17) {
+      if (remaining == 0) {
+         // there is nothing left to draw
+         return Double.NEGATIVE_INFINITY;
+      }
+
+      double value = 0;
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES; i++) {
+         if (counts[i] == 0) {
+            continue;
+         }
+         double p = (double) counts[i] / remaining;
+         int newHardTotal = hardTotal + i + 1;
+         boolean newHasAce = hasAce || (i == 0);
+
+         if (newHardTotal > 21) {
+            value -= p;
+         } else if (total(newHardTotal, newHasAce) == 21) {
+            value += p;
+         } else {
+            counts[i]--;
+            value += p * this.bestValue(newHardTotal, newHasAce, upcardValue, counts, remaining - 1,
+                  dealerHitsSoft17);
+            counts[i]++;
+         }
+      }
+      return value;
+   } // end hitValue()
+
+   /**
+    * Private function for the value of a position when the player makes the
+    * better move, remembered in the memo
+    */
+   private double bestValue(int hardTotal, boolean hasAce, int upcardValue, int[] counts, int remaining,
+         boolean dealerHitsSoft17) {
+      long composition = DealerOutcomeCalculator.packComposition(counts);
+      if (composition < 0) {
+         throw new RuntimeException("The solver supports at most 15 decks");
+      }
+      Position position = new Position(composition, (dealerHitsSoft17 ? HITS_SOFT_17_KEY : 0) | (upcardValue << 6)
+            | (hardTotal << 1) | (hasAce ? 1 : 0));
+
+      Double known = this.memo.get(position);
+      if (known != null) {
+         return known;
+      }
+
+      double value = Math.max(this.standValue(total(hardTotal, hasAce), upcardValue, counts, dealerHitsSoft17),
+            this.hitValue(hardTotal, hasAce, upcardValue, counts, remaining, dealerHitsSoft17));
+      this.memo.put(position, value);
+      return value;
+   } // end bestValue()
+
+   /**
+    * Private function for the value of a hand from its hard total
+    */
+   private static int total(int hardTotal, boolean hasAce) {
+      return (hasAce && hardTotal + 10 <= 21) ? hardTotal + 10 : hardTotal;
+   } // end total()
+
+}// end of ExpectedValueSolver class
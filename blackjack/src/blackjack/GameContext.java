@@ -0,0 +1,116 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.Card;
+
+/**
+ * class that holds the state of a single blackjack table. Every table owns its
+ * own context, and the actors seated at the table report their moves to it, so
+ * any number of independent tables can be played in one process
+ * @author Michael Baker
+ */
+public final class GameContext {
+   private int gameState = 0;
+   private Card dealerUpcard;
+   private MetricsRecorder metrics;
+   private TableRules rules = TableRules.DEFAULT;
+
+   /**
+    * Constructor - a new table starts without any game state
+    */
+   public GameContext() {
+   }
+
+   /**
+    * public function to be used by the player and dealer classes to announce
+    * if/when they have won
+    * @param newGameState - the value to change the game state to
+    * @precondition - The function expects that the input is one of the predefined
+    *               game states in the BlackjackLogic class
+    * @postcondition - Updates the game state of this table only
+    */
+   public void updateGameState(int newGameState) {
+      if (newGameState > BlackjackLogic.GAME_IS_A_TIE) {
+         throw new RuntimeException("Unrecognized game state " + newGameState + "\n");
+      } else {
+         this.gameState = newGameState;
+      }
+   } // end of updateGameState()
+
+   /**
+    * public getter function for the game state of this table
+    * @return - integer containing one of the predefined game state variables
+    */
+   public int getGameState() {
+      return this.gameState;
+   } // end of getGameState()
+
+   /**
+    * public setter function for the dealer's face up card, called when the
+    * dealer is dealt their hand
+    * @param upcard - the card every player at the table can see
+    */
+   public void setDealerUpcard(Card upcard) {
+      this.dealerUpcard = upcard;
+   } // end of setDealerUpcard()
+
+   /**
+    * public getter function for the dealer's face up card
+    * @return - the dealer's first card
+    */
+   public Card getDealerUpcard() {
+      return this.dealerUpcard;
+   } // end of getDealerUpcard()
+
+   /**
+    * public setter function for the house rules the table plays by
+    * @param rules - the table's rules
+    * @precondition - expects an active (not null) TableRules reference, and no
+    *               round to be in progress
+    */
+   public void setRules(TableRules rules) {
+      if (rules == null) {
+         throw new RuntimeException("A table must have rules");
+      }
+      this.rules = rules;
+   } // end of setRules()
+
+   /**
+    * public getter function for the house rules the table plays by
+    * @return - the table's rules, TableRules.DEFAULT unless others were set
+    */
+   public TableRules getRules() {
+      return this.rules;
+   } // end of getRules()
+
+   /**
+    * public setter function for the recorder this table counts every round in
+    * @param metrics - a recorder, often from
+    *        GameMetrics.getPlatformInstance().newRecorder(), or null to stop
+    *        counting
+    */
+   public void setMetrics(MetricsRecorder metrics) {
+      this.metrics = metrics;
+   } // end of setMetrics()
+
+   /**
+    * public getter function for the recorder this table counts rounds in
+    * @return - the recorder, or null if the table doesn't count
+    */
+   public MetricsRecorder getMetrics() {
+      return this.metrics;
+   } // end of getMetrics()
+
+   /**
+    * public function to check if the round being played at this table is over
+    * @return - true if the game state is one of the three game completion states
+    */
+   public boolean isRoundOver() {
+      return (this.gameState == BlackjackLogic.GAME_WON_BY_PLAYER)
+            || (this.gameState == BlackjackLogic.GAME_WON_BY_DEALER)
+            || (this.gameState == BlackjackLogic.GAME_IS_A_TIE);
+   } // end of isRoundOver()
+
+}// end of GameContext class
@@ -0,0 +1,259 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * class that counts what happens at every table in the process and shows it
+ * over JMX. Every counter is a LongAdder, so tables on many threads update them
+ * without fighting over a shared cache line, and the totals are only added up
+ * when a JMX client reads them. Round latencies go into a fixed log-scale
+ * histogram of LongAdders - eight buckets for every power of two - from which
+ * the mean and 99th percentile are read
+ *
+ * Tables don't update the adders round by round. Each table counts into its
+ * own MetricsRecorder, set on its GameContext, which adds its counts to the
+ * shared adders a batch at a time - so even a simulation worker playing
+ * millions of rounds a second touches the shared counters only now and then.
+ * Tables without a recorder pay nothing
+ * @author Michael Baker
+ */
+public final class GameMetrics implements GameMetricsMBean {
+   public static final String OBJECT_NAME = "blackjack:type=GameMetrics";
+
+   // the histogram keeps 3 bits below each value's leading bit
+   private static final int SUB_BUCKET_BITS = 3;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   static final int NUMBER_OF_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+   private static GameMetrics platformInstance;
+
+   private final LongAdder roundsCompleted = new LongAdder();
+   private final LongAdder playerWins = new LongAdder();
+   private final LongAdder dealerWins = new LongAdder();
+   private final LongAdder ties = new LongAdder();
+   private final LongAdder cardsDrawn = new LongAdder();
+   private final LongAdder shuffles = new LongAdder();
+   private final LongAdder latencyNanos = new LongAdder();
+   private final LongAdder[] latencyHistogram = new LongAdder[NUMBER_OF_BUCKETS];
+   private final LongAdder totalWagered = new LongAdder();
+   private final LongAdder playerNetWinnings = new LongAdder();
+   private final LongAdder playerBankroll = new LongAdder();
+   private volatile long startTime = System.nanoTime();
+
+   /**
+    * Constructor for a set of metrics that is not registered with JMX
+    */
+   public GameMetrics() {
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         this.latencyHistogram[i] = new LongAdder();
+      }
+   } // end Constructor
+
+   /**
+    * Static function that returns the metrics registered with the platform
+    * MBean server under OBJECT_NAME, registering them the first time
+    * @return - the process wide metrics
+    */
+   public static synchronized GameMetrics getPlatformInstance() {
+      if (platformInstance == null) {
+         GameMetrics metrics = new GameMetrics();
+         try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(metrics, new ObjectName(OBJECT_NAME));
+         } catch (JMException e) {
+            throw new RuntimeException("Could not register " + OBJECT_NAME, e);
+         }
+         platformInstance = metrics;
+      }
+      return platformInstance;
+   } // end getPlatformInstance()
+
+   /**
+    * public function that makes a recorder for one table
+    * @param latencySampleInterval - the recorder times one round in this many.
+    *        1 times every round, and a larger power of two keeps the cost of
+    *        reading the clock off simulations that play rounds back to back
+    * @return - a recorder that adds its counts to these metrics
+    * @precondition - expects a positive power of two
+    */
+   public MetricsRecorder newRecorder(int latencySampleInterval) {
+      return new MetricsRecorder(this, latencySampleInterval);
+   } // end newRecorder()
+
+   /***************
+    **** Updates from the recorders
+    ***************/
+   /**
+    * Function called by a recorder to add a batch of counts
+    */
+   void add(long rounds, long playerWins, long dealerWins, long ties, long cardsDrawn, long shuffles,
+         long latencyNanos, long[] latencyHistogram, long wagered, long playerNet, long bankrollChange) {
+      if (rounds != 0) {
+         this.roundsCompleted.add(rounds);
+         this.playerWins.add(playerWins);
+         this.dealerWins.add(dealerWins);
+         this.ties.add(ties);
+         this.cardsDrawn.add(cardsDrawn);
+      }
+      if (shuffles != 0) {
+         this.shuffles.add(shuffles);
+      }
+      if (latencyNanos != 0) {
+         this.latencyNanos.add(latencyNanos);
+      }
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         if (latencyHistogram[i] != 0) {
+            this.latencyHistogram[i].add(latencyHistogram[i]);
+         }
+      }
+      if (wagered != 0) {
+         this.totalWagered.add(wagered);
+         this.playerNetWinnings.add(playerNet);
+      }
+      if (bankrollChange != 0) {
+         this.playerBankroll.add(bankrollChange);
+      }
+   } // end add()
+
+   /***************
+    **** MBean attributes
+    ***************/
+   @Override
+   public long getRoundsCompleted() {
+      return this.roundsCompleted.sum();
+   }
+
+   @Override
+   public long getPlayerWins() {
+      return this.playerWins.sum();
+   }
+
+   @Override
+   public long getDealerWins() {
+      return this.dealerWins.sum();
+   }
+
+   @Override
+   public long getTies() {
+      return this.ties.sum();
+   }
+
+   @Override
+   public long getCardsDrawn() {
+      return this.cardsDrawn.sum();
+   }
+
+   @Override
+   public long getShuffles() {
+      return this.shuffles.sum();
+   }
+
+   @Override
+   public double getRoundsPerSecond() {
+      double seconds = (System.nanoTime() - this.startTime) / 1e9;
+      return (seconds > 0) ? this.roundsCompleted.sum() / seconds : 0.0;
+   }
+
+   @Override
+   public double getMeanRoundLatencyMicros() {
+      // only the timed rounds are in the histogram
+      long timedRounds = 0;
+      for (LongAdder bucket : this.latencyHistogram) {
+         timedRounds += bucket.sum();
+      }
+      return (timedRounds == 0) ? 0.0 : this.latencyNanos.sum() / 1e3 / timedRounds;
+   }
+
+   @Override
+   public double getP99RoundLatencyMicros() {
+      long[] counts = new long[NUMBER_OF_BUCKETS];
+      long total = 0;
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         counts[i] = this.latencyHistogram[i].sum();
+         total += counts[i];
+      }
+      if (total == 0) {
+         return 0.0;
+      }
+
+      // the smallest bucket that holds at least 99% of the rounds
+      long target = (long) Math.ceil(total * 0.99);
+      long seen = 0;
+      for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+         seen += counts[i];
+         if (seen >= target) {
+            return bucketUpperBound(i) / 1e3;
+         }
+      }
+      return bucketUpperBound(NUMBER_OF_BUCKETS - 1) / 1e3;
+   }
+
+   @Override
+   public long getTotalWagered() {
+      return this.totalWagered.sum();
+   }
+
+   @Override
+   public long getPlayerNetWinnings() {
+      return this.playerNetWinnings.sum();
+   }
+
+   @Override
+   public long getPlayerBankroll() {
+      return this.playerBankroll.sum();
+   }
+
+   @Override
+   public void reset() {
+      this.roundsCompleted.reset();
+      this.playerWins.reset();
+      this.dealerWins.reset();
+      this.ties.reset();
+      this.cardsDrawn.reset();
+      this.shuffles.reset();
+      this.latencyNanos.reset();
+      for (LongAdder bucket : this.latencyHistogram) {
+         bucket.reset();
+      }
+      this.totalWagered.reset();
+      this.playerNetWinnings.reset();
+      // the bankroll is money on the tables right now, not a count, so it stays
+      this.startTime = System.nanoTime();
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Function for the histogram bucket of a latency. Values below 8 get
+    * a bucket each, and every larger power of two is split into 8 buckets
+    */
+   static int bucketOf(long nanos) {
+      if (nanos < SUB_BUCKETS) {
+         return (int) Math.max(0, nanos);
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+      int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+   } // end bucketOf()
+
+   /**
+    * Private function for the smallest value above every value in a bucket
+    */
+   private static long bucketUpperBound(int bucket) {
+      if (bucket < SUB_BUCKETS) {
+         return bucket + 1;
+      }
+      int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+      long mantissa = SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1));
+      return (mantissa + 1) << shift;
+   } // end bucketUpperBound()
+
+}// end of GameMetrics class
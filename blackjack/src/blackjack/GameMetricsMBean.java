@@ -0,0 +1,82 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+/**
+ * Management interface of GameMetrics - the attributes and operations shown in
+ * JConsole, VisualVM or any other JMX client
+ * @author Michael Baker
+ */
+public interface GameMetricsMBean {
+   /**
+    * @return - number of rounds finished at every table. Tables report in
+    *         batches, so a busy simulation may be up to a batch behind
+    */
+   public long getRoundsCompleted();
+
+   /**
+    * @return - number of rounds that ended in GAME_WON_BY_PLAYER
+    */
+   public long getPlayerWins();
+
+   /**
+    * @return - number of rounds that ended in GAME_WON_BY_DEALER
+    */
+   public long getDealerWins();
+
+   /**
+    * @return - number of rounds that ended in GAME_IS_A_TIE
+    */
+   public long getTies();
+
+   /**
+    * @return - number of cards drawn from every shoe
+    */
+   public long getCardsDrawn();
+
+   /**
+    * @return - number of times a shoe was shuffled, including the discards being
+    *         shuffled back in when a shoe ran dry in the middle of a round
+    */
+   public long getShuffles();
+
+   /**
+    * @return - rounds finished per second since the metrics were created or
+    *         last reset
+    */
+   public double getRoundsPerSecond();
+
+   /**
+    * @return - mean time from the deal to the end of a round, in microseconds.
+    *         Tables that time only a sample of their rounds count only those
+    */
+   public double getMeanRoundLatencyMicros();
+
+   /**
+    * @return - time from the deal to the end of a round that 99% of rounds
+    *         finished within, in microseconds, accurate to within an eighth
+    */
+   public double getP99RoundLatencyMicros();
+
+   /**
+    * @return - total of every bet settled
+    */
+   public long getTotalWagered();
+
+   /**
+    * @return - total the players have won less what they have lost
+    */
+   public long getPlayerNetWinnings();
+
+   /**
+    * @return - money held by the players currently seated
+    */
+   public long getPlayerBankroll();
+
+   /**
+    * Operation that sets every counter back to zero. Rounds finishing while the
+    * reset runs, or still held by a table's recorder, may be partly counted
+    */
+   public void reset();
+}// end of GameMetricsMBean
@@ -0,0 +1,212 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.Card;
+import deck.Hand;
+import java.util.Arrays;
+
+/**
+ * class that holds many hands laid out for evaluating them all at once. The
+ * cards are kept by column - the first card of every hand in one array, the
+ * second card of every hand in the next and so on, with 0 where a hand has no
+ * card - so an evaluator can add up a whole column of hands with one vector
+ * instruction. The number of cards and aces in each hand are counted as it is
+ * added, so the columns only ever need adding up. A HandBatchEvaluator fills in each hand's total and its soft,
+ * bust and blackjack flags, which are read back with the getters
+ *
+ * A batch is reused by clearing it, so filling and evaluating it allocates
+ * nothing
+ * @author Michael Baker
+ */
+public final class HandBatch {
+   public static final byte SOFT = 1;
+   public static final byte BUST = 2;
+   public static final byte BLACKJACK = 4;
+
+   // totals are kept in bytes, which a hand of Hand.MAX_CARDS tens would overflow
+   private static final int MAX_HARD_TOTAL = Byte.MAX_VALUE;
+
+   // rank value of card c of hand h is ranks[c][h], 0 if the hand has no card c
+   final byte[][] ranks = new byte[Hand.MAX_CARDS][];
+   final byte[] cardCounts;
+   final byte[] aceCounts;
+   final byte[] totals;
+   final byte[] flags;
+   private final int capacity;
+   int size = 0;
+   int maxCards = 0; // columns holding at least one card
+
+   /**
+    * Constructor for an empty batch
+    * @param capacity - the most hands the batch can hold
+    * @precondition - expects a positive capacity
+    */
+   public HandBatch(int capacity) {
+      if (capacity <= 0) {
+         throw new RuntimeException("A batch must hold at least one hand");
+      }
+      this.capacity = capacity;
+      for (int c = 0; c < Hand.MAX_CARDS; c++) {
+         this.ranks[c] = new byte[capacity];
+      }
+      this.cardCounts = new byte[capacity];
+      this.aceCounts = new byte[capacity];
+      this.totals = new byte[capacity];
+      this.flags = new byte[capacity];
+   } // end Constructor
+
+   /***************
+    **** Setters
+    ***************/
+   /**
+    * public function that adds a hand to the end of the batch
+    * @param hand - the hand to add
+    * @return - position of the hand in the batch
+    * @precondition - expects the batch not to be full
+    * @postcondition - the hand's results are only valid once the batch has been
+    *                evaluated again
+    */
+   public int add(Hand hand) {
+      int h = this.nextHand(hand.size(), hand.getHardTotal(), hand.getAceCount());
+      for (int c = 0; c < hand.size(); c++) {
+         this.ranks[c][h] = (byte) hand.getCard(c).getRankValue();
+      }
+      return h;
+   } // end add()
+
+   /**
+    * public function that adds a hand held as an array of cards to the end of
+    * the batch
+    * @param cards - the cards of the hand
+    * @return - position of the hand in the batch
+    * @precondition - expects the batch not to be full
+    */
+   public int add(Card[] cards) {
+      int hardTotal = 0;
+      int aceCount = 0;
+      for (Card card : cards) {
+         hardTotal += card.getRankValue();
+         if (card.isAce()) {
+            aceCount++;
+         }
+      }
+      int h = this.nextHand(cards.length, hardTotal, aceCount);
+      for (int c = 0; c < cards.length; c++) {
+         this.ranks[c][h] = (byte) cards[c].getRankValue();
+      }
+      return h;
+   } // end add()
+
+   /**
+    * public function that empties the batch so it can be filled again
+    * @postcondition - the batch holds no hands
+    */
+   public void clear() {
+      // only the cells that were written need to go back to 0
+      for (int c = 0; c < this.maxCards; c++) {
+         Arrays.fill(this.ranks[c], 0, this.size, (byte) 0);
+      }
+      this.size = 0;
+      this.maxCards = 0;
+   } // end clear()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the number of hands in the batch
+    * @return - number of hands
+    */
+   public int size() {
+      return this.size;
+   }
+
+   /**
+    * public getter for the most hands the batch can hold
+    * @return - the batch's capacity
+    */
+   public int getCapacity() {
+      return this.capacity;
+   }
+
+   /**
+    * public getter for the value of an evaluated hand, counting an ace as 11
+    * when that doesn't take the hand over 21
+    * @param h - position of the hand
+    * @return - the hand's total
+    */
+   public int getTotal(int h) {
+      return this.totals[this.checkHand(h)];
+   }
+
+   /**
+    * public getter for the flags of an evaluated hand
+    * @param h - position of the hand
+    * @return - SOFT, BUST and BLACKJACK or'd together
+    */
+   public int getFlags(int h) {
+      return this.flags[this.checkHand(h)];
+   }
+
+   /**
+    * public getter to check if an evaluated hand counts an ace as 11
+    * @param h - position of the hand
+    * @return - true if it does
+    */
+   public boolean isSoft(int h) {
+      return (this.getFlags(h) & SOFT) != 0;
+   }
+
+   /**
+    * public getter to check if an evaluated hand is over 21
+    * @param h - position of the hand
+    * @return - true if it is
+    */
+   public boolean isBust(int h) {
+      return (this.getFlags(h) & BUST) != 0;
+   }
+
+   /**
+    * public getter to check if an evaluated hand is a natural - 21 with two cards
+    * @param h - position of the hand
+    * @return - true if it is
+    */
+   public boolean isBlackjack(int h) {
+      return (this.getFlags(h) & BLACKJACK) != 0;
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that makes room for the next hand
+    * @return - position of the new hand
+    */
+   private int nextHand(int numberOfCards, int hardTotal, int aceCount) {
+      if (this.size == this.capacity) {
+         throw new RuntimeException("The batch already holds " + this.capacity + " hands");
+      }
+      if (numberOfCards > Hand.MAX_CARDS || hardTotal > MAX_HARD_TOTAL) {
+         throw new RuntimeException("A hand of " + numberOfCards + " cards totalling " + hardTotal
+               + " is too big for a batch");
+      }
+      int h = this.size++;
+      this.cardCounts[h] = (byte) numberOfCards;
+      this.aceCounts[h] = (byte) aceCount;
+      this.maxCards = Math.max(this.maxCards, numberOfCards);
+      return h;
+   } // end nextHand()
+
+   /**
+    * Private function that checks a hand position is in the batch
+    */
+   private int checkHand(int h) {
+      if (h < 0 || h >= this.size) {
+         throw new RuntimeException("There is no hand at position " + h + " in the batch");
+      }
+      return h;
+   } // end checkHand()
+
+}// end of HandBatch class
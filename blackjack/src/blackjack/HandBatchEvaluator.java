@@ -0,0 +1,71 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+/**
+ * Interface for anything that evaluates every hand in a HandBatch. There are
+ * two - a plain loop that runs anywhere, and one that uses the incubating
+ * Vector API to evaluate as many hands per instruction as the CPU's vector
+ * registers hold. The vector evaluator needs the jdk.incubator.vector module,
+ * which a JVM only loads when started with
+ * --add-modules jdk.incubator.vector. Both give identical results
+ * @author Michael Baker
+ */
+public interface HandBatchEvaluator {
+   public static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+   /**
+    * function that evaluates every hand in the batch
+    * @param batch - the hands to evaluate
+    * @postcondition - every hand's total and flags can be read from the batch
+    */
+   public void evaluate(HandBatch batch);
+
+   /**
+    * @return - short name of the evaluator, used in reports
+    */
+   public String getName();
+
+   /**
+    * Static function that returns the fastest evaluator this JVM can run. On
+    * CPUs with only 128 bit vectors the Vector API falls back to slow paths for
+    * the byte masks the vector evaluator uses, and the scalar evaluator - which
+    * the JIT vectorizes well enough there - is faster
+    * @return - the vector evaluator if its module is loaded and the CPU has at
+    *         least 256 bit vectors, the scalar one otherwise
+    */
+   public static HandBatchEvaluator getDefault() {
+      return (isVectorAvailable() && VectorHandBatchEvaluator.isWide()) ? vector() : scalar();
+   } // end getDefault()
+
+   /**
+    * Static function that returns the evaluator that runs anywhere
+    * @return - the scalar evaluator
+    */
+   public static HandBatchEvaluator scalar() {
+      return ScalarHandBatchEvaluator.INSTANCE;
+   } // end scalar()
+
+   /**
+    * Static function that returns the Vector API evaluator
+    * @return - the vector evaluator
+    * @precondition - expects isVectorAvailable() to be true
+    */
+   public static HandBatchEvaluator vector() {
+      if (!isVectorAvailable()) {
+         throw new RuntimeException("Start the JVM with --add-modules " + VECTOR_MODULE + " to use the vector evaluator");
+      }
+      // only touch the class once the module is known to be there
+      return VectorHandBatchEvaluator.INSTANCE;
+   } // end vector()
+
+   /**
+    * Static function to check if the Vector API can be used
+    * @return - true if the jdk.incubator.vector module was loaded
+    */
+   public static boolean isVectorAvailable() {
+      return ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent();
+   } // end isVectorAvailable()
+
+}// end of HandBatchEvaluator
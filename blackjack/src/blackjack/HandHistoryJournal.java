@@ -0,0 +1,205 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.Hand;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * class that appends a compact binary record of every round played to a hand
+ * history file. Every record is RECORD_SIZE bytes - the round's sequence
+ * number, the bet, the outcome and the cards of both hands as card ordinals, in
+ * the order they were dealt - so a file can be read back or memory mapped
+ * without parsing. Records are collected in a direct buffer and written to the
+ * file channel a batch at a time
+ *
+ * Record layout, big-endian:
+ *   0  long  sequence number of the round in this file
+ *   8  int   the player's bet
+ *  12  byte  final game state, one of the BlackjackLogic game won/tie states
+ *  13  byte  flags - PLAYER_STOOD if the player's last decision was to stand,
+ *              DEALER_HITS_SOFT_17 if the table's dealer hit a soft 17
+ *  14  byte  number of cards in the player's hand
+ *  15  byte  number of cards in the dealer's hand
+ *  16  byte[MAX_CARDS] the player's cards followed by the dealer's cards
+ *
+ * The player's decisions follow from the cards - every card after the first
+ * two was a hit. A journal is not thread safe - every table or simulation
+ * worker should write its own file
+ * @author Michael Baker
+ */
+public final class HandHistoryJournal implements AutoCloseable {
+   // file header - magic number, format version and record size
+   public static final int MAGIC = 0x424A4848; // "BJHH"
+   public static final short VERSION = 1;
+   public static final int HEADER_SIZE = 8;
+
+   public static final int RECORD_SIZE = 64;
+   public static final int CARDS_OFFSET = 16;
+   public static final int MAX_CARDS = RECORD_SIZE - CARDS_OFFSET;
+   public static final int PLAYER_STOOD = 1;
+   public static final int DEALER_HITS_SOFT_17 = 2;
+
+   public static final int DEFAULT_RECORDS_PER_BATCH = 1024;
+
+   private final FileChannel channel;
+   private final ByteBuffer buffer;
+   private long sequence = 0;
+
+   /**
+    * Constructor for a journal that appends to the given file with the default
+    * batch size
+    * @param file - hand history file, created if it does not exist
+    * @throws IOException - if the file cannot be opened or is not a hand history
+    */
+   public HandHistoryJournal(Path file) throws IOException {
+      this(file, DEFAULT_RECORDS_PER_BATCH);
+   } // end Constructor
+
+   /**
+    * Constructor for a journal that appends to the given file
+    * @param file - hand history file, created if it does not exist
+    * @param recordsPerBatch - number of records collected before they are
+    *        written to the file
+    * @throws IOException - if the file cannot be opened or is not a hand history
+    * @precondition - expects a positive batch size
+    */
+   public HandHistoryJournal(Path file, int recordsPerBatch) throws IOException {
+      if (recordsPerBatch <= 0) {
+         throw new RuntimeException("A batch must hold at least one record");
+      }
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.READ);
+      this.buffer = ByteBuffer.allocateDirect(recordsPerBatch * RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+
+      long size = this.channel.size();
+      if (size == 0) {
+         ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+         header.putInt(MAGIC).putShort(VERSION).putShort((short) RECORD_SIZE).flip();
+         while (header.hasRemaining()) {
+            this.channel.write(header, header.position());
+         }
+      } else {
+         // carry on numbering from the last whole record in the file
+         checkHeader(this.channel, file);
+         this.sequence = (size - HEADER_SIZE) / RECORD_SIZE;
+      }
+      this.channel.position(HEADER_SIZE + this.sequence * RECORD_SIZE);
+   } // end Constructor
+
+   /**
+    * public function that records a finished round
+    * @param bet - the player's bet
+    * @param playerHand - the player's hand at the end of the round
+    * @param dealerHand - the dealer's hand at the end of the round
+    * @param gameState - the round's final game state
+    * @precondition - the round is over
+    * @postcondition - the record is buffered, and written once the batch is full
+    */
+   public void record(int bet, Hand playerHand, Hand dealerHand, int gameState) {
+      this.record(bet, playerHand, dealerHand, gameState, false);
+   } // end record()
+
+   /**
+    * public function that records a finished round played at a table whose
+    * dealer may hit a soft 17
+    * @param dealerHitsSoft17 - true if the round was played under H17 rules
+    * @see #record(int, Hand, Hand, int)
+    */
+   public void record(int bet, Hand playerHand, Hand dealerHand, int gameState, boolean dealerHitsSoft17) {
+      int playerCards = playerHand.size();
+      int dealerCards = dealerHand.size();
+      if (playerCards + dealerCards > MAX_CARDS) {
+         throw new RuntimeException("A round with " + (playerCards + dealerCards) + " cards does not fit in a record");
+      }
+      if (!this.buffer.hasRemaining()) {
+         this.flush();
+      }
+
+      // the player stood unless they went bust or reached 21 first
+      boolean stood = !playerHand.isBust() && playerHand.getTotal() != 21;
+
+      int start = this.buffer.position();
+      this.buffer.putLong(this.sequence++);
+      this.buffer.putInt(bet);
+      this.buffer.put((byte) gameState);
+      this.buffer.put((byte) ((stood ? PLAYER_STOOD : 0) | (dealerHitsSoft17 ? DEALER_HITS_SOFT_17 : 0)));
+      this.buffer.put((byte) playerCards);
+      this.buffer.put((byte) dealerCards);
+      for (int i = 0; i < playerCards; i++) {
+         this.buffer.put((byte) playerHand.getCard(i).getOrdinal());
+      }
+      for (int i = 0; i < dealerCards; i++) {
+         this.buffer.put((byte) dealerHand.getCard(i).getOrdinal());
+      }
+      // unused card slots are left zeroed
+      while (this.buffer.position() < start + RECORD_SIZE) {
+         this.buffer.put((byte) 0);
+      }
+   } // end record()
+
+   /**
+    * public function that writes every buffered record to the file
+    * @postcondition - the buffer is empty
+    */
+   public void flush() {
+      this.buffer.flip();
+      try {
+         while (this.buffer.hasRemaining()) {
+            this.channel.write(this.buffer);
+         }
+      } catch (IOException e) {
+         throw new UncheckedIOException("Could not write the hand history", e);
+      }
+      this.buffer.clear();
+   } // end flush()
+
+   /**
+    * public function that writes the last batch and closes the file
+    * @throws IOException - if the file cannot be closed
+    */
+   @Override
+   public void close() throws IOException {
+      try {
+         this.flush();
+      } finally {
+         this.channel.close();
+      }
+   } // end close()
+
+   /**
+    * public getter for the number of rounds in the file, including buffered ones
+    * @return - number of records
+    */
+   public long getRoundsRecorded() {
+      return this.sequence;
+   }
+
+   /**
+    * Static function that checks that an open file starts with a hand history
+    * header written by this version
+    * @param channel - channel of the file
+    * @param file - path of the file, used in the error message
+    * @throws IOException - if the header cannot be read or does not match
+    */
+   static void checkHeader(FileChannel channel, Path file) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      while (header.hasRemaining()) {
+         if (channel.read(header, header.position()) < 0) {
+            throw new IOException(file + " is too short to be a hand history");
+         }
+      }
+      header.flip();
+      if (header.getInt() != MAGIC || header.getShort() != VERSION || header.getShort() != RECORD_SIZE) {
+         throw new IOException(file + " is not a version " + VERSION + " hand history");
+      }
+   } // end checkHeader()
+
+}// end of HandHistoryJournal class
@@ -0,0 +1,268 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import actors.Dealer;
+import actors.Player;
+import actors.PlayerStrategy;
+import deck.Card;
+import deck.DealingMachine;
+import deck.Hand;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.random.RandomGenerator;
+
+/**
+ * class that reads hand history files written by HandHistoryJournal and plays
+ * every recorded round again through BlackjackLogic.playRound(). Each round is
+ * dealt the recorded cards in the recorded order, the player hits until they
+ * hold as many cards as they did, and the dealer plays by their own rule - so a
+ * round only verifies if the dealer drew exactly the recorded cards and the
+ * round ends in the recorded outcome. Files are memory mapped and read in
+ * place, a slice of the file at a time
+ *
+ * A replayer is not thread safe - every thread should use its own
+ * @author Michael Baker
+ */
+public final class HandHistoryReplayer {
+   // largest part of a file mapped at once, a whole number of records
+   private static final long MAX_SLICE = (Integer.MAX_VALUE / HandHistoryJournal.RECORD_SIZE)
+         * (long) HandHistoryJournal.RECORD_SIZE;
+
+   // only the dealer's soft 17 rule changes how a recorded round plays out
+   private static final TableRules HITS_SOFT_17 = new TableRules(true, 1, 1, 1, 1.0);
+
+   private final GameContext table = new GameContext();
+   private final ScriptedDealingMachine script = new ScriptedDealingMachine();
+   private final ReplayStrategy strategy = new ReplayStrategy();
+   private final Player player = new Player(this.strategy);
+   private final Dealer dealer = new Dealer();
+   private final byte[] cards = new byte[HandHistoryJournal.MAX_CARDS];
+
+   private long roundsReplayed = 0;
+   private long mismatches = 0;
+   private long firstMismatch = -1;
+
+   /**
+    * Constructor - a new replayer has not replayed any rounds
+    */
+   public HandHistoryReplayer() {
+   } // end Constructor
+
+   /**
+    * Main function that verifies one or more hand history files
+    * @param args - paths of the files to verify
+    * @precondition - expects at least one file written by HandHistoryJournal
+    * @postcondition - prints a report for each file
+    */
+   public static void main(String[] args) throws IOException {
+      if (args.length == 0) {
+         System.out.println("Usage: HandHistoryReplayer <hand history file>...");
+         return;
+      }
+      for (String arg : args) {
+         HandHistoryReplayer replayer = new HandHistoryReplayer();
+         long startTime = System.nanoTime();
+         replayer.verify(Path.of(arg));
+         double seconds = (System.nanoTime() - startTime) / 1e9;
+
+         System.out.println(arg + ": " + replayer.getRoundsReplayed() + " rounds replayed, "
+               + replayer.getMismatches() + " mismatches");
+         if (replayer.getMismatches() > 0) {
+            System.out.println("First mismatch at round " + replayer.getFirstMismatch());
+         }
+         System.out.printf("Elapsed: %.3f s\tRounds/sec: %.0f%n", seconds, replayer.getRoundsReplayed() / seconds);
+      }
+   } // end of main
+
+   /**
+    * public function that replays every round in a hand history file
+    * @param file - the hand history file
+    * @return - true if every round replayed to its recorded outcome
+    * @throws IOException - if the file cannot be read or is not a hand history
+    * @postcondition - the replayer's counts include this file's rounds. A partly
+    *                written record at the end of the file is ignored
+    */
+   public boolean verify(Path file) throws IOException {
+      long mismatchesBefore = this.mismatches;
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+         HandHistoryJournal.checkHeader(channel, file);
+         long records = (channel.size() - HandHistoryJournal.HEADER_SIZE) / HandHistoryJournal.RECORD_SIZE;
+         long end = HandHistoryJournal.HEADER_SIZE + records * HandHistoryJournal.RECORD_SIZE;
+
+         for (long start = HandHistoryJournal.HEADER_SIZE; start < end; start += MAX_SLICE) {
+            long length = Math.min(MAX_SLICE, end - start);
+            MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+            slice.order(ByteOrder.BIG_ENDIAN);
+            while (slice.hasRemaining()) {
+               this.replayRecord(slice);
+            }
+         }
+      }
+      return this.mismatches == mismatchesBefore;
+   } // end verify()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the number of rounds replayed
+    * @return - rounds replayed over every file verified so far
+    */
+   public long getRoundsReplayed() {
+      return this.roundsReplayed;
+   }
+
+   /**
+    * public getter for the number of rounds that did not replay as recorded
+    * @return - number of mismatched rounds
+    */
+   public long getMismatches() {
+      return this.mismatches;
+   }
+
+   /**
+    * public getter for the sequence number of the first round that did not
+    * replay as recorded
+    * @return - the round's sequence number, or -1 if every round matched
+    */
+   public long getFirstMismatch() {
+      return this.firstMismatch;
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that reads one record from the buffer and replays it
+    */
+   private void replayRecord(MappedByteBuffer records) {
+      int start = records.position();
+      long sequence = records.getLong();
+      int bet = records.getInt();
+      int gameState = records.get();
+      int flags = records.get();
+      int playerCards = records.get();
+      int dealerCards = records.get();
+      records.get(this.cards, 0, HandHistoryJournal.MAX_CARDS);
+      records.position(start + HandHistoryJournal.RECORD_SIZE);
+
+      this.roundsReplayed++;
+      boolean matches = (bet > 0) && (playerCards >= 2) && (dealerCards >= 2)
+            && (playerCards + dealerCards <= HandHistoryJournal.MAX_CARDS)
+            && this.replay(playerCards, dealerCards, gameState, flags);
+      if (!matches) {
+         if (this.mismatches++ == 0) {
+            this.firstMismatch = sequence;
+         }
+      }
+   } // end replayRecord()
+
+   /**
+    * Private function that plays a recorded round through BlackjackLogic
+    * @return - true if the round ended as recorded
+    */
+   private boolean replay(int playerCards, int dealerCards, int gameState, int flags) {
+      this.script.load(this.cards, playerCards, dealerCards);
+      this.strategy.playerCards = playerCards;
+      this.table.setRules(((flags & HandHistoryJournal.DEALER_HITS_SOFT_17) != 0) ? HITS_SOFT_17 : TableRules.DEFAULT);
+
+      // the same actors replay every round
+      Player player = this.player;
+      Dealer dealer = this.dealer;
+      player.reset();
+      dealer.reset();
+      dealer.setQuiet(true);
+      int outcome;
+      try {
+         outcome = BlackjackLogic.playRound(this.table, dealer, player, this.script, null);
+      } catch (RecordExhausted e) {
+         // the round wanted more cards than were recorded - anything else thrown
+         // is a fault in the game, not in the record, and is left to propagate
+         return false;
+      }
+
+      Hand playerHand = player.getHand();
+      boolean stood = !playerHand.isBust() && playerHand.getTotal() != 21;
+      return (outcome == gameState) && this.script.isFinished() && (playerHand.size() == playerCards)
+            && (dealer.getHand().size() == dealerCards)
+            && (stood == ((flags & HandHistoryJournal.PLAYER_STOOD) != 0));
+   } // end replay()
+
+   /**
+    * DealingMachine that deals the cards of a recorded round in the order
+    * BlackjackLogic.playRound() drew them - two to the player, two to the
+    * dealer, the player's hits and then the dealer's hits
+    */
+   private static final class ScriptedDealingMachine extends DealingMachine {
+      private final byte[] order = new byte[HandHistoryJournal.MAX_CARDS];
+      private int length;
+      private int next;
+
+      private ScriptedDealingMachine() {
+         super(1, 1.0, RandomGenerator.getDefault());
+      }
+
+      private void load(byte[] cards, int playerCards, int dealerCards) {
+         // the record keeps each hand together, the deal interleaves them
+         this.order[0] = cards[0];
+         this.order[1] = cards[1];
+         this.order[2] = cards[playerCards];
+         this.order[3] = cards[playerCards + 1];
+         System.arraycopy(cards, 2, this.order, 4, playerCards - 2);
+         System.arraycopy(cards, playerCards + 2, this.order, playerCards + 2, dealerCards - 2);
+         this.length = playerCards + dealerCards;
+         this.next = 0;
+      }
+
+      private boolean isFinished() {
+         return this.next == this.length;
+      }
+
+      @Override
+      public Card draw() {
+         if (this.next == this.length) {
+            throw new RecordExhausted();
+         }
+         return Card.of(this.order[this.next++]);
+      }
+   }// end of ScriptedDealingMachine class
+
+   /**
+    * Thrown by a ScriptedDealingMachine when the round draws past the recorded
+    * cards, which makes the round a mismatch.
+    * Unchecked so that it can leave BlackjackLogic.playRound() through the
+    * actors' draws
+    */
+   private static final class RecordExhausted extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      private RecordExhausted() {
+         super("The round drew more cards than were recorded", null, false, false);
+      }
+   }// end of RecordExhausted class
+
+   /**
+    * Strategy that repeats a recorded player's decisions - hit until holding the
+    * recorded number of cards, then stand
+    */
+   private static final class ReplayStrategy implements PlayerStrategy {
+      private int playerCards;
+
+      @Override
+      public int bet(int money) {
+         return money;
+      }
+
+      @Override
+      public int decide(Hand hand, Card dealerUpcard) {
+         return (hand.size() < this.playerCards) ? HIT : STAND;
+      }
+   }// end of ReplayStrategy class
+
+}// end of HandHistoryReplayer class
@@ -0,0 +1,460 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import actors.BasicStrategy;
+import actors.Dealer;
+import actors.DealerRuleStrategy;
+import actors.Player;
+import actors.PlayerStrategy;
+import deck.DealingMachine;
+import deck.InfiniteDeckDealingMachine;
+import deck.ShoeQueue;
+import deck.ShuffleAhead;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * class that plays complete rounds of blackjack without a user. Automated
+ * players are dealt against the same Dealer, DealingMachine and BlackjackLogic
+ * used by the console game, and the work is spread across one worker per core.
+ * Each worker sums up its rounds in a RoundStatistics of its own, and they are
+ * merged once every worker has finished
+ * @author Michael Baker
+ */
+public final class HeadlessSimulator {
+   // indexes into the tally array simulate() returns
+   public static final int PLAYER_WINS = 0;
+   public static final int DEALER_WINS = 1;
+   public static final int TIES = 2;
+   public static final int PLAYER_BLACKJACKS = 3; // player wins dealt a blackjack
+   private static final int TALLY_SIZE = 4;
+
+   // every usual blackjack payout, 3:2 and 6:5 included, pays this bet exactly
+   private static final int FLAT_BET = 10;
+   private static final int LATENCY_SAMPLE_INTERVAL = 64;
+   public static final int DEFAULT_NUMBER_OF_DECKS = TableRules.DEFAULT_NUMBER_OF_DECKS;
+   public static final double DEFAULT_PENETRATION = TableRules.DEFAULT_PENETRATION;
+
+   /**
+    * private constructor - the simulator is only used through its static
+    * functions
+    */
+   private HeadlessSimulator() {
+   }
+
+   /**
+    * Main function for headless runs
+    * @param args - optional number of rounds, number of worker threads, seed,
+    *        number of decks in the shoe, penetration, player strategy ("basic"
+    *        or "dealer") and hand history file, in that order. "--h17" and
+    *        "--blackjack-pays=3:2" may be given anywhere to change the rules,
+    *        "--shuffle-ahead" to shuffle the workers' shoes on a background
+    *        thread, "--seats=7" to seat that many players at every table and
+    *        "--infinite-deck" to deal from an infinite deck instead of a shoe
+    * @precondition - any provided arguments must be positive numbers (the seed
+    *               may be any long)
+    * @postcondition - prints a single report once every round has been played
+    */
+   public static void main(String[] args) {
+      // pull out the rule options, leaving the arguments that go by position
+      boolean dealerHitsSoft17 = false;
+      int[] blackjackPayout = { 1, 1 };
+      boolean shuffleAhead = false;
+      int seats = 1;
+      boolean infiniteDeck = false;
+      List<String> positional = new ArrayList<>();
+      for (String arg : args) {
+         if (arg.equals("--h17")) {
+            dealerHitsSoft17 = true;
+         } else if (arg.startsWith("--blackjack-pays=")) {
+            blackjackPayout = TableRules.parsePayout(arg.substring("--blackjack-pays=".length()));
+         } else if (arg.equals("--shuffle-ahead")) {
+            shuffleAhead = true;
+         } else if (arg.startsWith("--seats=")) {
+            seats = Integer.parseInt(arg.substring("--seats=".length()));
+         } else if (arg.equals("--infinite-deck")) {
+            infiniteDeck = true;
+         } else {
+            positional.add(arg);
+         }
+      }
+      args = positional.toArray(new String[0]);
+
+      long rounds = (args.length > 0) ? Long.parseLong(args[0]) : 1_000_000L;
+      int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+      long seed = (args.length > 2) ? Long.parseLong(args[2]) : System.nanoTime();
+      int numberOfDecks = (args.length > 3) ? Integer.parseInt(args[3]) : DEFAULT_NUMBER_OF_DECKS;
+      double penetration = (args.length > 4) ? Double.parseDouble(args[4]) : DEFAULT_PENETRATION;
+      String strategyName = (args.length > 5) ? args[5] : "basic";
+      Path journal = (args.length > 6) ? Path.of(args[6]) : null;
+      TableRules rules = new TableRules(dealerHitsSoft17, blackjackPayout[0], blackjackPayout[1], numberOfDecks,
+            penetration);
+
+      // register the metrics MBean now so its start up isn't timed with the rounds
+      GameMetrics.getPlatformInstance();
+      ShuffleAhead shuffler = shuffleAhead ? new ShuffleAhead("shuffle-ahead") : null;
+      long startTime = System.nanoTime();
+      RoundStatistics statistics;
+      try {
+         if (shuffler != null) {
+            shuffler.start();
+         }
+         statistics = simulateStatistics(rounds, threads, seed, rules, strategyFor(strategyName), journal, shuffler,
+               seats, infiniteDeck);
+      } finally {
+         if (shuffler != null) {
+            shuffler.close();
+         }
+      }
+      double seconds = (System.nanoTime() - startTime) / 1e9;
+      long[] tally = tallyOf(statistics);
+      long hands = statistics.getRounds();
+
+      System.out.println("Rounds played: " + rounds + " on " + threads + " threads (seed " + seed + ")");
+      System.out.println("Rules: " + rules + "\tStrategy: " + strategyName
+            + (infiniteDeck ? "\tShoe: infinite deck" : ""));
+      System.out.printf("Elapsed: %.3f s\tHands/sec: %.0f%n", seconds, hands / seconds);
+      if (seats > 1) {
+         long shuffles = GameMetrics.getPlatformInstance().getShuffles();
+         System.out.printf("Seats: %d\tHands played: %d\tHands/hour: %.0f\tRounds/sec: %.0f%n", seats, hands,
+               3600 * hands / seconds, rounds / seconds);
+         if (!infiniteDeck) {
+            System.out.printf("Shoes dealt: %d\tHands per shoe: %.1f%n", shuffles,
+                  (shuffles == 0) ? (double) hands : (double) hands / shuffles);
+         }
+      }
+      System.out.println("Player wins: " + tally[PLAYER_WINS] + "\tDealer wins: " + tally[DEALER_WINS] + "\tTies: "
+            + tally[TIES]);
+      System.out.printf("Player blackjacks: %d\tHouse edge: %.3f%%%n", tally[PLAYER_BLACKJACKS],
+            100.0 * houseEdge(tally, rules.getBlackjackPayout()));
+      System.out.printf("Net per unit bet: %.5f +/- %.5f\tStandard deviation: %.4f%n", statistics.getMeanNet(),
+            statistics.getStandardError(), Math.sqrt(statistics.getVariance()));
+      System.out.println("Bankroll: " + statistics.getBankroll() + "\tHigh: " + statistics.getBankrollHigh()
+            + "\tLow: " + statistics.getBankrollLow());
+      System.out.println("Final totals (player/dealer):");
+      for (int total = 0; total <= RoundStatistics.MAX_TOTAL; total++) {
+         long playerCount = statistics.getPlayerTotalCount(total);
+         long dealerCount = statistics.getDealerTotalCount(total);
+         if (playerCount != 0 || dealerCount != 0) {
+            System.out.printf("  %2d: %6.3f%% / %6.3f%%%n", total, 100.0 * playerCount / hands,
+                  100.0 * dealerCount / hands);
+         }
+      }
+      if (shuffler != null) {
+         System.out.println("Shoes swapped in ready: " + shuffler.getShoesSwapped() + "\tShuffled inline: "
+               + shuffler.getShoesShuffledInline());
+      }
+   } // end of main
+
+   /**
+    * Static function that splits the rounds between a pool of workers, each with
+    * its own seed, and adds up their results
+    * @param rounds - total number of rounds to play
+    * @param threads - number of workers to play them on
+    * @param seed - seed the per-worker seeds are split from
+    * @param numberOfDecks - number of decks in each worker's shoe
+    * @param penetration - fraction of the shoe dealt before reshuffling
+    * @param strategy - strategy every automated player uses. Shared between the
+    *        workers, so it must not keep any state
+    * @return - array holding the number of player wins, dealer wins and ties,
+    *         then how many of the player's wins were blackjacks
+    * @precondition - expects positive rounds and threads
+    * @postcondition - the wins, losses and ties always add up to rounds
+    */
+   public static long[] simulate(long rounds, int threads, long seed, int numberOfDecks, double penetration,
+         PlayerStrategy strategy) {
+      return simulate(rounds, threads, seed, numberOfDecks, penetration, strategy, null);
+   } // end of simulate()
+
+   /**
+    * Static function that plays the rounds like simulate() above and records
+    * every round in a hand history. With one worker the rounds are written to
+    * the given file, and with more each worker writes to the file name followed
+    * by "." and its index
+    * @param journal - hand history file, or null to not record the rounds
+    * @see #simulate(long, int, long, int, double, PlayerStrategy)
+    */
+   public static long[] simulate(long rounds, int threads, long seed, int numberOfDecks, double penetration,
+         PlayerStrategy strategy, Path journal) {
+      return simulate(rounds, threads, seed, new TableRules(false, 1, 1, numberOfDecks, penetration), strategy,
+            journal);
+   } // end of simulate()
+
+   /**
+    * Static function that plays the rounds like simulate() above at tables with
+    * the given rules
+    * @param rules - the rules every worker's table plays by, including the size
+    *        and penetration of its shoe
+    * @see #simulate(long, int, long, int, double, PlayerStrategy, Path)
+    */
+   public static long[] simulate(long rounds, int threads, long seed, TableRules rules, PlayerStrategy strategy,
+         Path journal) {
+      return tallyOf(simulateStatistics(rounds, threads, seed, rules, strategy, journal, null));
+   } // end of simulate()
+
+   /**
+    * Static function that plays the rounds like simulate() above, and returns
+    * everything the workers measured instead of only the tally. Every worker's
+    * new shoes can also be taken from a queue of its own that the given
+    * producer keeps shuffled ahead. The shoes then come from a generator split
+    * from each worker's seed, so a seed deals different cards than it does
+    * without a producer - but still the same cards every run
+    * @param shuffler - a started producer, or null for every worker to shuffle
+    *        its own shoe
+    * @return - the workers' statistics, merged in the order of the workers
+    * @see #simulate(long, int, long, TableRules, PlayerStrategy, Path)
+    */
+   public static RoundStatistics simulateStatistics(long rounds, int threads, long seed, TableRules rules,
+         PlayerStrategy strategy, Path journal, ShuffleAhead shuffler) {
+      return simulateStatistics(rounds, threads, seed, rules, strategy, journal, shuffler, 1, false);
+   } // end of simulateStatistics()
+
+   /**
+    * Static function that plays the rounds like simulateStatistics() above, at
+    * tables of several seats. Every seat plays the same strategy for the same
+    * bet, and each seat's hand is recorded in the statistics as a round of its
+    * own, so they hold rounds times seats hands
+    * @param seats - number of players at each worker's table, from 1 to
+    *        BlackjackLogic.MAX_SEATS. Hand histories hold one seat's hands, so
+    *        there must be no journal when there is more than one seat
+    * @param infiniteDeck - true to deal every table from an
+    *        InfiniteDeckDealingMachine, drawing each card with replacement, in
+    *        place of a shoe of the rules' number of decks. There is then nothing
+    *        to shuffle, so there must be no shuffler
+    * @return - the workers' statistics, merged in the order of the workers
+    */
+   public static RoundStatistics simulateStatistics(long rounds, int threads, long seed, TableRules rules,
+         PlayerStrategy strategy, Path journal, ShuffleAhead shuffler, int seats, boolean infiniteDeck) {
+      if (rounds <= 0 || threads <= 0) {
+         throw new RuntimeException("Rounds and threads must both be greater than zero");
+      }
+      if (seats <= 0 || seats > BlackjackLogic.MAX_SEATS) {
+         throw new RuntimeException("A table seats 1 to " + BlackjackLogic.MAX_SEATS + " players, not " + seats);
+      }
+      if (seats > 1 && journal != null) {
+         throw new RuntimeException("Hand histories can only be kept for a table with one seat");
+      }
+      if (infiniteDeck && shuffler != null) {
+         throw new RuntimeException("An infinite deck is never shuffled, so it cannot be shuffled ahead");
+      }
+
+      ExecutorService pool = Executors.newFixedThreadPool(threads);
+      SplittableRandom seeds = new SplittableRandom(seed);
+      List<Future<RoundStatistics>> workers = new ArrayList<>(threads);
+      try {
+         for (int i = 0; i < threads; i++) {
+            // spread any remainder over the first workers
+            long workerRounds = rounds / threads + ((i < rounds % threads) ? 1 : 0);
+            SplittableRandom workerRandom = seeds.split();
+            Path workerJournal = (journal == null || threads == 1) ? journal
+                  : journal.resolveSibling(journal.getFileName() + "." + i);
+            workers.add(pool.submit(
+                  () -> playRounds(workerRounds, workerRandom, rules, strategy, workerJournal, shuffler, seats,
+                        infiniteDeck)));
+         }
+
+         RoundStatistics statistics = new RoundStatistics();
+         for (var w : workers) {
+            statistics.merge(w.get());
+         }
+         return statistics;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new RuntimeException("Simulation was interrupted", e);
+      } catch (ExecutionException e) {
+         throw new RuntimeException("Simulation worker failed", e.getCause());
+      } finally {
+         pool.shutdownNow();
+      }
+   } // end of simulateStatistics()
+
+   /**
+    * Static function that counts up the outcomes in a worker's statistics
+    * @param statistics - statistics of any number of rounds
+    * @return - array holding the number of player wins, dealer wins, ties and
+    *         player blackjacks, as simulate() returns them
+    */
+   public static long[] tallyOf(RoundStatistics statistics) {
+      long[] tally = new long[TALLY_SIZE];
+      tally[PLAYER_WINS] = statistics.getOutcomeCount(BlackjackLogic.GAME_WON_BY_PLAYER);
+      tally[DEALER_WINS] = statistics.getOutcomeCount(BlackjackLogic.GAME_WON_BY_DEALER);
+      tally[TIES] = statistics.getOutcomeCount(BlackjackLogic.GAME_IS_A_TIE);
+      tally[PLAYER_BLACKJACKS] = statistics.getPlayerBlackjacks();
+      return tally;
+   } // end of tallyOf()
+
+   /**
+    * Static function for the house edge of a tally - what the player loses per
+    * unit bet, on average
+    * @param tally - a tally returned by simulate()
+    * @param blackjackPayout - what a blackjack pays per unit bet, 1.5 for 3:2
+    * @return - the house edge, negative if the player has the edge
+    */
+   public static double houseEdge(long[] tally, double blackjackPayout) {
+      long rounds = tally[PLAYER_WINS] + tally[DEALER_WINS] + tally[TIES];
+      double playerNet = (tally[PLAYER_WINS] - tally[PLAYER_BLACKJACKS])
+            + tally[PLAYER_BLACKJACKS] * blackjackPayout - tally[DEALER_WINS];
+      return -playerNet / rounds;
+   } // end of houseEdge()
+
+   /**
+    * Static function for the standard error of houseEdge() - the spread of the
+    * estimate that a fresh run of as many rounds would give
+    * @param tally - a tally returned by simulate()
+    * @param blackjackPayout - what a blackjack pays per unit bet
+    * @return - one standard error of the house edge
+    */
+   public static double houseEdgeStandardError(long[] tally, double blackjackPayout) {
+      long rounds = tally[PLAYER_WINS] + tally[DEALER_WINS] + tally[TIES];
+      double mean = -houseEdge(tally, blackjackPayout);
+      // a round wins or loses one unit, or wins the blackjack payout
+      double meanSquare = (tally[PLAYER_WINS] - tally[PLAYER_BLACKJACKS] + tally[DEALER_WINS]
+            + tally[PLAYER_BLACKJACKS] * blackjackPayout * blackjackPayout) / rounds;
+      return Math.sqrt(Math.max(0.0, meanSquare - mean * mean) / rounds);
+   } // end of houseEdgeStandardError()
+
+   /**
+    * Static function that looks up an automated strategy by name
+    * @param name - "basic" for basic strategy or "dealer" for the dealer's rule
+    * @return - a strategy that bets the same flat amount every round
+    */
+   public static PlayerStrategy strategyFor(String name) {
+      switch (name) {
+      case "basic":
+         return new BasicStrategy(FLAT_BET);
+      case "dealer":
+         return new DealerRuleStrategy(FLAT_BET);
+      default:
+         throw new RuntimeException("Unknown strategy " + name + " - expected basic or dealer");
+      }
+   } // end of strategyFor()
+
+   /**
+    * Private function run by each worker - plays its share of the rounds
+    * @param rounds - number of rounds this worker plays
+    * @param randomGenerator - generator owned by this worker
+    * @param rules - the rules of the worker's table
+    * @param strategy - strategy the worker's player uses
+    * @param journal - the worker's hand history file, or null
+    * @param shuffler - producer of the worker's shoes, or null
+    * @param seats - number of players at the worker's table
+    * @param infiniteDeck - true to deal from an infinite deck
+    * @return - the worker's statistics
+    */
+   private static RoundStatistics playRounds(long rounds, SplittableRandom randomGenerator, TableRules rules,
+         PlayerStrategy strategy, Path journal, ShuffleAhead shuffler, int seats, boolean infiniteDeck) {
+      try (HandHistoryJournal history = (journal == null) ? null : new HandHistoryJournal(journal);
+            ShoeQueue shoes = (shuffler == null) ? null
+                  : shuffler.newQueue(rules.getNumberOfDecks(), ShuffleAhead.DEFAULT_SHOES_AHEAD,
+                        randomGenerator.split())) {
+         DealingMachine shoe = infiniteDeck
+               ? new InfiniteDeckDealingMachine(rules.getNumberOfDecks(), randomGenerator)
+               : new DealingMachine(rules.getNumberOfDecks(), rules.getPenetration(), randomGenerator, shoes);
+         if (seats > 1) {
+            return playSeatedRounds(rounds, rules, strategy, seats, shoe);
+         }
+         return playRounds(rounds, rules, strategy, history, shoe);
+      } catch (IOException e) {
+         throw new UncheckedIOException("Could not write the hand history " + journal, e);
+      }
+   } // end of playRounds()
+
+   /**
+    * Function that plays a worker's rounds, recording each one in the hand
+    * history if there is one. Also used by RuleSweep
+    */
+   static RoundStatistics playRounds(long rounds, SplittableRandom randomGenerator, TableRules rules,
+         PlayerStrategy strategy, HandHistoryJournal history) {
+      return playRounds(rounds, rules, strategy, history,
+            new DealingMachine(rules.getNumberOfDecks(), rules.getPenetration(), randomGenerator));
+   } // end of playRounds()
+
+   /**
+    * Function that plays a worker's rounds like playRounds() above, dealing
+    * from the given machine
+    */
+   private static RoundStatistics playRounds(long rounds, TableRules rules, PlayerStrategy strategy,
+         HandHistoryJournal history, DealingMachine shoe) {
+      RoundStatistics statistics = new RoundStatistics();
+      // every worker plays at its own table, dealing every round from one shoe
+      GameContext table = new GameContext();
+      table.setRules(rules);
+      // simulated rounds come back to back, so timing a sample of them is plenty
+      MetricsRecorder metrics = GameMetrics.getPlatformInstance().newRecorder(LATENCY_SAMPLE_INTERVAL);
+      table.setMetrics(metrics);
+      // and the same player and dealer, so a round allocates nothing
+      Player player = new Player(strategy);
+      Dealer dealer = new Dealer();
+      dealer.setQuiet(true);
+      for (long r = 0; r < rounds; r++) {
+         shoe.reshuffleIfNeeded();
+         player.reset();
+         dealer.reset();
+         // the player only ever holds the bet - winnings leave the table
+         player.addMoneyToPlayer(FLAT_BET - player.getMoney());
+         int bet = player.bet();
+
+         int gameState = BlackjackLogic.playRound(table, dealer, player, shoe, null);
+         if (history != null) {
+            history.record(bet, player.getHand(), dealer.getHand(), gameState, rules.dealerHitsSoft17());
+         }
+         int returned = rules.payout(gameState, bet, player.getHand());
+         statistics.record(gameState, bet, returned, player.getHand(), dealer.getHand());
+         metrics.betSettled(bet, returned);
+      }
+      metrics.flush();
+      return statistics;
+   } // end of playRounds()
+
+   /**
+    * Function that plays a worker's rounds like playRounds() above, at a table
+    * of several seats sharing the dealer and the shoe
+    */
+   private static RoundStatistics playSeatedRounds(long rounds, TableRules rules, PlayerStrategy strategy, int seats,
+         DealingMachine shoe) {
+      RoundStatistics statistics = new RoundStatistics();
+      GameContext table = new GameContext();
+      table.setRules(rules);
+      MetricsRecorder metrics = GameMetrics.getPlatformInstance().newRecorder(LATENCY_SAMPLE_INTERVAL);
+      table.setMetrics(metrics);
+      // the same players and dealer every round, so a round still allocates nothing
+      Player[] players = new Player[seats];
+      for (int seat = 0; seat < seats; seat++) {
+         players[seat] = new Player(strategy);
+      }
+      int[] bets = new int[seats];
+      int[] outcomes = new int[seats];
+      Dealer dealer = new Dealer();
+      dealer.setQuiet(true);
+      for (long r = 0; r < rounds; r++) {
+         shoe.reshuffleIfNeeded();
+         dealer.reset();
+         for (int seat = 0; seat < seats; seat++) {
+            Player player = players[seat];
+            player.reset();
+            player.addMoneyToPlayer(FLAT_BET - player.getMoney());
+            bets[seat] = player.bet();
+         }
+
+         BlackjackLogic.playRound(table, dealer, players, seats, shoe, outcomes);
+         for (int seat = 0; seat < seats; seat++) {
+            int returned = rules.payout(outcomes[seat], bets[seat], players[seat].getHand());
+            statistics.record(outcomes[seat], bets[seat], returned, players[seat].getHand(), dealer.getHand());
+            metrics.betSettled(bets[seat], returned);
+         }
+      }
+      metrics.flush();
+      return statistics;
+   } // end of playSeatedRounds()
+
+}// end of HeadlessSimulator class
@@ -0,0 +1,145 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.DealingMachine;
+import java.util.Arrays;
+
+/**
+ * class that counts one table's rounds, bets and bankroll in plain fields and
+ * adds them to the shared GameMetrics a batch at a time. A recorder belongs to
+ * a single table and is only used by the thread playing at it, so counting a
+ * round costs a few additions - the shared counters are only touched every
+ * FLUSH_INTERVAL rounds, or whenever flush() is called.
+ *
+ * Reading the clock twice costs about as much as a simulated round, so a
+ * recorder can time only one round in every latencySampleInterval. The latency
+ * attributes then describe the timed rounds, which for back to back simulated
+ * rounds are as good as all of them
+ * @author Michael Baker
+ */
+public final class MetricsRecorder {
+   public static final int FLUSH_INTERVAL = 1024;
+
+   private final GameMetrics metrics;
+   private final int sampleMask;
+   private long roundsSinceSample;
+
+   private long rounds;
+   private long playerWins;
+   private long dealerWins;
+   private long ties;
+   private long cardsDrawn;
+   private long shuffles;
+   private long latencyNanos;
+   private final long[] latencyHistogram = new long[GameMetrics.NUMBER_OF_BUCKETS];
+   private long wagered;
+   private long playerNet;
+   private long bankrollChange;
+
+   // the shoe this table last counted shuffles for, and how many it had done
+   private DealingMachine countedShoe;
+   private long countedShuffles;
+
+   /**
+    * Constructor called by GameMetrics.newRecorder()
+    */
+   MetricsRecorder(GameMetrics metrics, int latencySampleInterval) {
+      if (latencySampleInterval <= 0 || Integer.bitCount(latencySampleInterval) != 1) {
+         throw new RuntimeException("The latency sample interval must be a power of two: " + latencySampleInterval);
+      }
+      this.metrics = metrics;
+      this.sampleMask = latencySampleInterval - 1;
+   } // end Constructor
+
+   /**
+    * public function called by BlackjackLogic.playRound() before the deal
+    * @return - true if the round about to be played should be timed
+    */
+   public boolean timeNextRound() {
+      return (this.roundsSinceSample++ & this.sampleMask) == 0;
+   } // end timeNextRound()
+
+   /**
+    * public function called by BlackjackLogic.playRound() when a round ends
+    * @param gameState - the round's final game state
+    * @param latencyNanos - time from the deal to the end of the round, or -1 if
+    *        the round wasn't timed
+    * @param cardsDrawn - cards drawn during the round
+    * @param shoe - the shoe the round was dealt from, to count its shuffles
+    * @postcondition - every FLUSH_INTERVAL rounds the counts are flushed
+    */
+   public void roundCompleted(int gameState, long latencyNanos, long cardsDrawn, DealingMachine shoe) {
+      this.rounds++;
+      switch (gameState) {
+      case BlackjackLogic.GAME_WON_BY_PLAYER:
+         this.playerWins++;
+         break;
+      case BlackjackLogic.GAME_WON_BY_DEALER:
+         this.dealerWins++;
+         break;
+      case BlackjackLogic.GAME_IS_A_TIE:
+         this.ties++;
+         break;
+      }
+      this.cardsDrawn += cardsDrawn;
+
+      if (shoe != this.countedShoe) {
+         this.countedShoe = shoe;
+         this.countedShuffles = 0;
+      }
+      this.shuffles += shoe.getShuffles() - this.countedShuffles;
+      this.countedShuffles = shoe.getShuffles();
+
+      if (latencyNanos >= 0) {
+         this.latencyNanos += latencyNanos;
+         this.latencyHistogram[GameMetrics.bucketOf(latencyNanos)]++;
+      }
+      if (this.rounds >= FLUSH_INTERVAL) {
+         this.flush();
+      }
+   } // end roundCompleted()
+
+   /**
+    * public function called when a bet is settled
+    * @param bet - the amount bet
+    * @param returned - the amount paid back to the player, 0 for a loss
+    */
+   public void betSettled(long bet, long returned) {
+      this.wagered += bet;
+      this.playerNet += returned - bet;
+   } // end betSettled()
+
+   /**
+    * public function called when money is brought to or taken from the table -
+    * a player sitting down or leaving, or the result of a bet
+    * @param change - money added to the player's bankroll, negative if taken
+    */
+   public void bankrollChanged(long change) {
+      this.bankrollChange += change;
+   } // end bankrollChanged()
+
+   /**
+    * public function that adds everything counted since the last flush to the
+    * shared metrics. Interactive tables call it after every round so JMX clients
+    * see each round at once, and every table calls it when it closes
+    * @postcondition - the recorder's counts are back to zero
+    */
+   public void flush() {
+      this.metrics.add(this.rounds, this.playerWins, this.dealerWins, this.ties, this.cardsDrawn, this.shuffles,
+            this.latencyNanos, this.latencyHistogram, this.wagered, this.playerNet, this.bankrollChange);
+      this.rounds = 0;
+      this.playerWins = 0;
+      this.dealerWins = 0;
+      this.ties = 0;
+      this.cardsDrawn = 0;
+      this.shuffles = 0;
+      this.latencyNanos = 0;
+      Arrays.fill(this.latencyHistogram, 0);
+      this.wagered = 0;
+      this.playerNet = 0;
+      this.bankrollChange = 0;
+   } // end flush()
+
+}// end of MetricsRecorder class
@@ -0,0 +1,228 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.Hand;
+
+/**
+ * class that sums up any number of rounds in a fixed amount of memory - the
+ * mean and variance of the player's net result per unit bet, the number of
+ * rounds that ended in each game state, histograms of the player's and the
+ * dealer's final totals, and the high and low points of the player's bankroll.
+ *
+ * An instance belongs to one worker and is not safe to share between threads.
+ * Workers each keep their own and merge them once they have all finished, so
+ * nothing is shared while rounds are being played. The mean and variance are
+ * kept with Welford's online algorithm, which stays accurate over any number
+ * of rounds, and merged with Chan's formula for combining two of them
+ * @author Michael Baker
+ */
+public final class RoundStatistics {
+   // highest total a hand can end on - a hard 20 that draws a ten
+   public static final int MAX_TOTAL = 30;
+
+   private long rounds = 0;
+   private double meanNet = 0.0;
+   private double sumOfSquaredDeviations = 0.0;
+
+   private long playerWins = 0;
+   private long dealerWins = 0;
+   private long ties = 0;
+   private long playerBlackjacks = 0;
+
+   private final long[] playerTotals = new long[MAX_TOTAL + 1];
+   private final long[] dealerTotals = new long[MAX_TOTAL + 1];
+
+   // the player's winnings so far, starting from 0
+   private long bankroll = 0;
+   private long bankrollHigh = 0;
+   private long bankrollLow = 0;
+
+   /**
+    * public function that adds a finished round
+    * @param gameState - the round's final game state
+    * @param bet - the amount bet
+    * @param returned - the amount paid back to the player, including their bet
+    * @param playerHand - the player's hand at the end of the round
+    * @param dealerHand - the dealer's hand at the end of the round
+    * @precondition - expects a positive bet and one of the game completion
+    *               states
+    */
+   public void record(int gameState, int bet, int returned, Hand playerHand, Hand dealerHand) {
+      switch (gameState) {
+      case BlackjackLogic.GAME_WON_BY_PLAYER:
+         this.playerWins++;
+         if (playerHand.isBlackjack()) {
+            this.playerBlackjacks++;
+         }
+         break;
+      case BlackjackLogic.GAME_WON_BY_DEALER:
+         this.dealerWins++;
+         break;
+      case BlackjackLogic.GAME_IS_A_TIE:
+         this.ties++;
+         break;
+      default:
+         throw new RuntimeException("Cannot record a round in game state " + gameState);
+      }
+
+      // Welford's update of the mean and the sum of squared deviations
+      double net = (double) (returned - bet) / bet;
+      this.rounds++;
+      double delta = net - this.meanNet;
+      this.meanNet += delta / this.rounds;
+      this.sumOfSquaredDeviations += delta * (net - this.meanNet);
+
+      this.playerTotals[Math.min(playerHand.getTotal(), MAX_TOTAL)]++;
+      this.dealerTotals[Math.min(dealerHand.getTotal(), MAX_TOTAL)]++;
+
+      this.bankroll += returned - bet;
+      if (this.bankroll > this.bankrollHigh) {
+         this.bankrollHigh = this.bankroll;
+      } else if (this.bankroll < this.bankrollLow) {
+         this.bankrollLow = this.bankroll;
+      }
+   } // end record()
+
+   /**
+    * public function that adds the rounds of another accumulator, as if they
+    * were played after this one's. Merging is associative, so any number of
+    * accumulators can be merged in any grouping - but keep them in the order
+    * their rounds were played for the bankroll's high and low points to mean
+    * one continuous session
+    * @param later - the accumulator to add, which is not changed
+    * @postcondition - this accumulator holds the rounds of both
+    */
+   public void merge(RoundStatistics later) {
+      if (later.rounds == 0) {
+         return;
+      }
+      // Chan et al.'s combination of two means and sums of squared deviations
+      long rounds = this.rounds + later.rounds;
+      double delta = later.meanNet - this.meanNet;
+      this.meanNet += delta * later.rounds / rounds;
+      this.sumOfSquaredDeviations += later.sumOfSquaredDeviations
+            + delta * delta * ((double) this.rounds * later.rounds / rounds);
+      this.rounds = rounds;
+
+      this.playerWins += later.playerWins;
+      this.dealerWins += later.dealerWins;
+      this.ties += later.ties;
+      this.playerBlackjacks += later.playerBlackjacks;
+      for (int i = 0; i <= MAX_TOTAL; i++) {
+         this.playerTotals[i] += later.playerTotals[i];
+         this.dealerTotals[i] += later.dealerTotals[i];
+      }
+
+      // the later rounds' high and low points, seen from this one's bankroll
+      this.bankrollHigh = Math.max(this.bankrollHigh, this.bankroll + later.bankrollHigh);
+      this.bankrollLow = Math.min(this.bankrollLow, this.bankroll + later.bankrollLow);
+      this.bankroll += later.bankroll;
+   } // end merge()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the number of rounds recorded
+    * @return - number of rounds
+    */
+   public long getRounds() {
+      return this.rounds;
+   }
+
+   /**
+    * public getter for the player's average result
+    * @return - mean net result per unit bet, negative when the house wins
+    */
+   public double getMeanNet() {
+      return this.meanNet;
+   }
+
+   /**
+    * public getter for the spread of the player's results
+    * @return - sample variance of the net result per unit bet, 0 for fewer than
+    *         two rounds
+    */
+   public double getVariance() {
+      return (this.rounds < 2) ? 0.0 : this.sumOfSquaredDeviations / (this.rounds - 1);
+   }
+
+   /**
+    * public getter for the standard error of getMeanNet()
+    * @return - the standard deviation divided by the square root of the rounds
+    */
+   public double getStandardError() {
+      return (this.rounds == 0) ? 0.0 : Math.sqrt(this.getVariance() / this.rounds);
+   }
+
+   /**
+    * public getter for the number of rounds that ended in a game state
+    * @param gameState - one of the BlackjackLogic game completion states
+    * @return - number of rounds that ended in it
+    */
+   public long getOutcomeCount(int gameState) {
+      switch (gameState) {
+      case BlackjackLogic.GAME_WON_BY_PLAYER:
+         return this.playerWins;
+      case BlackjackLogic.GAME_WON_BY_DEALER:
+         return this.dealerWins;
+      case BlackjackLogic.GAME_IS_A_TIE:
+         return this.ties;
+      default:
+         throw new RuntimeException("No round ends in game state " + gameState);
+      }
+   }
+
+   /**
+    * public getter for the number of player wins dealt a blackjack
+    * @return - number of blackjacks the player won with
+    */
+   public long getPlayerBlackjacks() {
+      return this.playerBlackjacks;
+   }
+
+   /**
+    * public getter for the histogram of the player's final totals
+    * @param total - a hand total from 0 to MAX_TOTAL
+    * @return - number of rounds the player finished on that total
+    */
+   public long getPlayerTotalCount(int total) {
+      return this.playerTotals[total];
+   }
+
+   /**
+    * public getter for the histogram of the dealer's final totals
+    * @param total - a hand total from 0 to MAX_TOTAL
+    * @return - number of rounds the dealer finished on that total
+    */
+   public long getDealerTotalCount(int total) {
+      return this.dealerTotals[total];
+   }
+
+   /**
+    * public getter for the player's winnings over every round recorded
+    * @return - net amount won, negative if lost
+    */
+   public long getBankroll() {
+      return this.bankroll;
+   }
+
+   /**
+    * public getter for the most the player was ever ahead
+    * @return - highest point of the winnings, at least 0
+    */
+   public long getBankrollHigh() {
+      return this.bankrollHigh;
+   }
+
+   /**
+    * public getter for the most the player was ever behind
+    * @return - lowest point of the winnings, at most 0
+    */
+   public long getBankrollLow() {
+      return this.bankrollLow;
+   }
+
+}// end of RoundStatistics class
@@ -0,0 +1,241 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import actors.PlayerStrategy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * class that prices a whole grid of table rules at once - the house edge of
+ * every combination of soft 17 rule, blackjack payout, decks and penetration.
+ *
+ * Work is shared between the rule sets wherever the rules allow it:
+ * - what a blackjack pays never changes how a round is played, so every rule
+ *   set that only differs in its payout is priced from the same simulated
+ *   rounds, and the payouts are applied to the tallies afterwards
+ * - every simulation starts from the same seed, so rule sets are compared on
+ *   the same shoes as far as their rules let them - the differences between
+ *   them are measured far more precisely than the edges themselves
+ * - one strategy, and its precomputed table, is shared by every table
+ *
+ * Each simulation is split into chunks of rounds that run on a fork-join pool,
+ * so the pool stays busy however many or few rule sets there are
+ * @author Michael Baker
+ */
+public final class RuleSweep {
+   public static final long DEFAULT_ROUNDS_PER_CHUNK = 1L << 18;
+
+   private final List<TableRules> grid;
+   private final PlayerStrategy strategy;
+   private final long roundsPerChunk;
+
+   /**
+    * Constructor for a sweep over a grid of rule sets
+    * @param grid - the rule sets to price
+    * @param strategy - strategy the player uses at every table. Shared between
+    *        threads, so it must not keep any state
+    * @param roundsPerChunk - most rounds a single fork-join task plays
+    * @precondition - expects at least one rule set and a positive chunk size
+    */
+   public RuleSweep(List<TableRules> grid, PlayerStrategy strategy, long roundsPerChunk) {
+      if (grid.isEmpty() || roundsPerChunk <= 0) {
+         throw new RuntimeException("A sweep needs at least one rule set and a positive chunk size");
+      }
+      this.grid = List.copyOf(grid);
+      this.strategy = strategy;
+      this.roundsPerChunk = roundsPerChunk;
+   } // end Constructor
+
+   /**
+    * Main function for an overnight pricing run
+    * @param args - options, each optional: "--rounds=N" per rule set,
+    *        "--seed=N", "--threads=N", "--strategy=basic|dealer" and the grid -
+    *        "--soft17=S17,H17", "--payouts=3:2,6:5,1:1", "--decks=1,2,6,8" and
+    *        "--penetration=0.75"
+    * @postcondition - prints the house edge of every rule set as a matrix
+    */
+   public static void main(String[] args) {
+      long rounds = 10_000_000L;
+      long seed = System.nanoTime();
+      int threads = Runtime.getRuntime().availableProcessors();
+      String strategyName = "basic";
+      String[] soft17 = { "S17", "H17" };
+      String[] payouts = { "3:2", "6:5", "1:1" };
+      String[] decks = { "1", "2", "6", "8" };
+      String[] penetrations = { "0.75" };
+      for (String arg : args) {
+         String value = arg.substring(arg.indexOf('=') + 1);
+         if (arg.startsWith("--rounds=")) {
+            rounds = Long.parseLong(value);
+         } else if (arg.startsWith("--seed=")) {
+            seed = Long.parseLong(value);
+         } else if (arg.startsWith("--threads=")) {
+            threads = Integer.parseInt(value);
+         } else if (arg.startsWith("--strategy=")) {
+            strategyName = value;
+         } else if (arg.startsWith("--soft17=")) {
+            soft17 = value.split(",");
+         } else if (arg.startsWith("--payouts=")) {
+            payouts = value.split(",");
+         } else if (arg.startsWith("--decks=")) {
+            decks = value.split(",");
+         } else if (arg.startsWith("--penetration=")) {
+            penetrations = value.split(",");
+         } else {
+            throw new RuntimeException("Unknown option " + arg);
+         }
+      }
+
+      List<TableRules> grid = new ArrayList<>();
+      for (String d : decks) {
+         for (String p : penetrations) {
+            for (String s : soft17) {
+               for (String payout : payouts) {
+                  int[] pays = TableRules.parsePayout(payout);
+                  grid.add(new TableRules(s.equalsIgnoreCase("H17"), pays[0], pays[1], Integer.parseInt(d),
+                        Double.parseDouble(p)));
+               }
+            }
+         }
+      }
+
+      RuleSweep sweep = new RuleSweep(grid, HeadlessSimulator.strategyFor(strategyName), DEFAULT_ROUNDS_PER_CHUNK);
+      // register the metrics MBean now so its start up isn't timed with the rounds
+      GameMetrics.getPlatformInstance();
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      long startTime = System.nanoTime();
+      List<long[]> tallies;
+      try {
+         tallies = sweep.run(rounds, seed, pool);
+      } finally {
+         pool.shutdownNow();
+      }
+      double seconds = (System.nanoTime() - startTime) / 1e9;
+
+      System.out.println("Rule sweep: " + grid.size() + " rule sets, " + rounds + " rounds each, seed " + seed
+            + ", strategy " + strategyName + ", " + threads + " threads");
+      System.out.printf("Simulated %d rounds in %.3f s%n", sweep.countSimulations() * rounds, seconds);
+      System.out.println("House edge, +/- one standard error:");
+      for (int i = 0; i < grid.size(); i++) {
+         TableRules rules = grid.get(i);
+         double payout = rules.getBlackjackPayout();
+         System.out.printf("  %-24s %7.3f%% +/- %.3f%%%n", rules, 100.0 * HeadlessSimulator.houseEdge(tallies.get(i),
+               payout), 100.0 * HeadlessSimulator.houseEdgeStandardError(tallies.get(i), payout));
+      }
+   } // end of main
+
+   /**
+    * public function that prices every rule set in the grid
+    * @param rounds - number of rounds each rule set is priced from
+    * @param seed - seed every simulation's shoes are split from
+    * @param pool - pool the simulations run on
+    * @return - a tally for every rule set, in the order of the grid, as
+    *         HeadlessSimulator.simulate() returns them. Rule sets that play
+    *         alike share the same tally
+    */
+   public List<long[]> run(long rounds, long seed, ForkJoinPool pool) {
+      if (rounds <= 0) {
+         throw new RuntimeException("Each rule set needs at least one round");
+      }
+      // one simulation for every group of rule sets that play alike
+      Map<TableRules, RoundsTask> simulations = new LinkedHashMap<>();
+      for (TableRules rules : this.grid) {
+         if (this.findSimulation(simulations, rules) == null) {
+            simulations.put(rules, new RoundsTask(rules, this.strategy, rounds, this.roundsPerChunk,
+                  new SplittableRandom(seed)));
+         }
+      }
+
+      // start them all before waiting on any, so the pool can work on them all
+      for (RoundsTask task : simulations.values()) {
+         pool.execute(task);
+      }
+      List<long[]> tallies = new ArrayList<>(this.grid.size());
+      for (TableRules rules : this.grid) {
+         tallies.add(HeadlessSimulator.tallyOf(this.findSimulation(simulations, rules).join()));
+      }
+      return tallies;
+   } // end run()
+
+   /**
+    * public function that counts the simulations the sweep runs
+    * @return - number of distinct ways the grid's rule sets play a round
+    */
+   public int countSimulations() {
+      List<TableRules> distinct = new ArrayList<>();
+      for (TableRules rules : this.grid) {
+         if (distinct.stream().noneMatch(rules::playsLike)) {
+            distinct.add(rules);
+         }
+      }
+      return distinct.size();
+   } // end countSimulations()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that finds the simulation a rule set can be priced from
+    * @return - the task simulating rules that play alike, or null
+    */
+   private RoundsTask findSimulation(Map<TableRules, RoundsTask> simulations, TableRules rules) {
+      for (var entry : simulations.entrySet()) {
+         if (entry.getKey().playsLike(rules)) {
+            return entry.getValue();
+         }
+      }
+      return null;
+   } // end findSimulation()
+
+   /**
+    * Fork-join task that plays a number of rounds under one set of rules,
+    * splitting itself in half until each half is at most a chunk of rounds.
+    * Tasks are never serialized, though ForkJoinTask is Serializable, so the
+    * fields that can't be are transient
+    */
+   private static final class RoundsTask extends RecursiveTask<RoundStatistics> {
+      private static final long serialVersionUID = 1L;
+
+      private final transient TableRules rules;
+      private final transient PlayerStrategy strategy;
+      private final long rounds;
+      private final long roundsPerChunk;
+      private final transient SplittableRandom random;
+
+      private RoundsTask(TableRules rules, PlayerStrategy strategy, long rounds, long roundsPerChunk,
+            SplittableRandom random) {
+         this.rules = rules;
+         this.strategy = strategy;
+         this.rounds = rounds;
+         this.roundsPerChunk = roundsPerChunk;
+         this.random = random;
+      }
+
+      @Override
+      protected RoundStatistics compute() {
+         if (this.rounds <= this.roundsPerChunk) {
+            return HeadlessSimulator.playRounds(this.rounds, this.random, this.rules, this.strategy, null);
+         }
+
+         // the split happens here, in the same order on every run, so a seed
+         // always gives the same shoes whatever the number of threads
+         long half = this.rounds / 2;
+         RoundsTask first = new RoundsTask(this.rules, this.strategy, half, this.roundsPerChunk, this.random.split());
+         RoundsTask second = new RoundsTask(this.rules, this.strategy, this.rounds - half, this.roundsPerChunk,
+               this.random);
+         first.fork();
+         RoundStatistics secondStatistics = second.compute();
+         RoundStatistics statistics = first.join();
+         statistics.merge(secondStatistics);
+         return statistics;
+      }
+   } // end of RoundsTask class
+
+}// end of RuleSweep class
@@ -0,0 +1,71 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import java.util.Arrays;
+
+/**
+ * class that evaluates a HandBatch with plain loops. It runs on any JVM - the
+ * JIT may still vectorize its column loop on its own - and the vector
+ * evaluator uses it for the hands left over after its last full vector
+ * @author Michael Baker
+ */
+final class ScalarHandBatchEvaluator implements HandBatchEvaluator {
+   static final ScalarHandBatchEvaluator INSTANCE = new ScalarHandBatchEvaluator();
+
+   /**
+    * private constructor - the evaluator holds no state, so one is shared
+    */
+   private ScalarHandBatchEvaluator() {
+   }
+
+   @Override
+   public void evaluate(HandBatch batch) {
+      evaluateRange(batch, 0, batch.size);
+   } // end evaluate()
+
+   @Override
+   public String getName() {
+      return "scalar";
+   }
+
+   /**
+    * Static function that evaluates some of the hands in a batch
+    * @param batch - the hands to evaluate
+    * @param from - position of the first hand, inclusive
+    * @param to - position of the last hand, exclusive
+    */
+   static void evaluateRange(HandBatch batch, int from, int to) {
+      // walk the cards a column at a time, as they are laid out, adding up each
+      // hand's hard total in totals
+      byte[] hardTotals = batch.totals;
+      Arrays.fill(hardTotals, from, to, (byte) 0);
+      for (int c = 0; c < batch.maxCards; c++) {
+         byte[] column = batch.ranks[c];
+         for (int h = from; h < to; h++) {
+            hardTotals[h] += column[h];
+         }
+      }
+
+      for (int h = from; h < to; h++) {
+         int hardTotal = hardTotals[h];
+         // as in Hand, only one ace can ever be counted as 11
+         boolean soft = (batch.aceCounts[h] > 0) && (hardTotal <= 11);
+         int total = soft ? hardTotal + 10 : hardTotal;
+         int flags = 0;
+         if (soft) {
+            flags |= HandBatch.SOFT;
+         }
+         if (hardTotal > 21) {
+            flags |= HandBatch.BUST;
+         }
+         if (batch.cardCounts[h] == 2 && total == 21) {
+            flags |= HandBatch.BLACKJACK;
+         }
+         batch.totals[h] = (byte) total;
+         batch.flags[h] = (byte) flags;
+      }
+   } // end evaluateRange()
+
+}// end of ScalarHandBatchEvaluator class
@@ -0,0 +1,166 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import deck.Hand;
+
+/**
+ * class that holds the house rules of a table - whether the dealer hits a soft
+ * 17, what a blackjack pays, and the size and penetration of the shoe. Rules
+ * never change once made, so one set can be shared by any number of tables on
+ * any number of threads
+ *
+ * A win pays even money and a tie gives the bet back, whatever the rules. A
+ * player who wins with a blackjack is paid the blackjack payout instead, rounded
+ * down to a whole amount as casinos do with odd bets
+ * @author Michael Baker
+ */
+public final class TableRules {
+   public static final int DEFAULT_NUMBER_OF_DECKS = 6;
+   public static final double DEFAULT_PENETRATION = 0.75;
+
+   /**
+    * The rules the game has always been played by - the dealer stands on every
+    * 17 and a blackjack pays even money
+    */
+   public static final TableRules DEFAULT = new TableRules(false, 1, 1, DEFAULT_NUMBER_OF_DECKS,
+         DEFAULT_PENETRATION);
+
+   private final boolean dealerHitsSoft17;
+   private final int blackjackPays;
+   private final int blackjackPaysFor;
+   private final int numberOfDecks;
+   private final double penetration;
+
+   /**
+    * Constructor for a set of rules
+    * @param dealerHitsSoft17 - true if the dealer hits a soft 17 (H17), false if
+    *        they stand on every 17 (S17)
+    * @param blackjackPays - what a blackjack pays for every blackjackPaysFor bet,
+    *        3 for 3:2
+    * @param blackjackPaysFor - the bet the blackjack payout is quoted against, 2
+    *        for 3:2
+    * @param numberOfDecks - number of decks in the shoe
+    * @param penetration - fraction of the shoe dealt before reshuffling
+    * @precondition - expects a positive payout, decks, and a penetration greater
+    *               than 0 and at most 1
+    */
+   public TableRules(boolean dealerHitsSoft17, int blackjackPays, int blackjackPaysFor, int numberOfDecks,
+         double penetration) {
+      if (blackjackPays <= 0 || blackjackPaysFor <= 0) {
+         throw new RuntimeException("A blackjack must pay something: " + blackjackPays + ":" + blackjackPaysFor);
+      }
+      if (numberOfDecks <= 0) {
+         throw new RuntimeException("The shoe must hold at least one deck");
+      }
+      if (penetration <= 0.0 || penetration > 1.0) {
+         throw new RuntimeException("Penetration must be greater than 0 and at most 1");
+      }
+      this.dealerHitsSoft17 = dealerHitsSoft17;
+      this.blackjackPays = blackjackPays;
+      this.blackjackPaysFor = blackjackPaysFor;
+      this.numberOfDecks = numberOfDecks;
+      this.penetration = penetration;
+   } // end Constructor
+
+   /**
+    * Static function that reads a blackjack payout written the usual way
+    * @param payout - the payout, for example "3:2", "6:5" or "1:1"
+    * @return - the two sides of the payout
+    */
+   public static int[] parsePayout(String payout) {
+      int colon = payout.indexOf(':');
+      if (colon < 0) {
+         throw new RuntimeException("A payout is written as PAYS:FOR, for example 3:2 - not " + payout);
+      }
+      return new int[] { Integer.parseInt(payout.substring(0, colon)), Integer.parseInt(payout.substring(colon + 1)) };
+   } // end parsePayout()
+
+   /**
+    * public function that settles a bet
+    * @param gameState - the round's final game state
+    * @param bet - the amount bet
+    * @param playerHand - the player's hand at the end of the round
+    * @return - the amount paid back to the player, including their bet - 0 for a
+    *         loss, the bet for a tie
+    */
+   public int payout(int gameState, int bet, Hand playerHand) {
+      switch (gameState) {
+      case BlackjackLogic.GAME_WON_BY_PLAYER:
+         if (playerHand.isBlackjack()) {
+            return bet + (int) ((long) bet * this.blackjackPays / this.blackjackPaysFor);
+         }
+         return bet * 2;
+      case BlackjackLogic.GAME_IS_A_TIE:
+         return bet;
+      case BlackjackLogic.GAME_WON_BY_DEALER:
+         return 0;
+      default:
+         throw new RuntimeException("Cannot settle a round in game state " + gameState);
+      }
+   } // end payout()
+
+   /**
+    * public function to check if two sets of rules deal and play every round the
+    * same way, so that they only differ in what a blackjack pays
+    * @param other - the rules to compare with
+    * @return - true if a round played under one is played the same under the
+    *         other
+    */
+   public boolean playsLike(TableRules other) {
+      return (this.dealerHitsSoft17 == other.dealerHitsSoft17) && (this.numberOfDecks == other.numberOfDecks)
+            && (this.penetration == other.penetration);
+   } // end playsLike()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the dealer's soft 17 rule
+    * @return - true for H17, false for S17
+    */
+   public boolean dealerHitsSoft17() {
+      return this.dealerHitsSoft17;
+   }
+
+   /**
+    * public getter for what a blackjack pays for every unit bet
+    * @return - 1.5 for 3:2
+    */
+   public double getBlackjackPayout() {
+      return (double) this.blackjackPays / this.blackjackPaysFor;
+   }
+
+   /**
+    * public getter for the size of the shoe
+    * @return - number of decks
+    */
+   public int getNumberOfDecks() {
+      return this.numberOfDecks;
+   }
+
+   /**
+    * public getter for how deep the shoe is dealt
+    * @return - fraction of the shoe dealt before reshuffling
+    */
+   public double getPenetration() {
+      return this.penetration;
+   }
+
+   /***************
+    **** Misc.
+    ***************/
+   /**
+    * overwriting Java toString() function to describe the rules the way a table
+    * sign does
+    * @return - for example "6 decks 75% S17 BJ 3:2"
+    */
+   @Override
+   public String toString() {
+      return this.numberOfDecks + ((this.numberOfDecks == 1) ? " deck " : " decks ")
+            + Math.round(this.penetration * 100) + "% " + (this.dealerHitsSoft17 ? "H17" : "S17") + " BJ "
+            + this.blackjackPays + ":" + this.blackjackPaysFor;
+   }
+
+}// end of TableRules class
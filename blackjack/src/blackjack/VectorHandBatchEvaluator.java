@@ -0,0 +1,74 @@
+/**
+ * blackjack package
+ */
+package blackjack;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * class that evaluates a HandBatch with the incubating Vector API. Every hand
+ * is one byte lane, so a vector holds 16 hands with SSE, 32 with AVX2 and 64
+ * with AVX-512, and each column of cards is added to a whole vector of hands
+ * at once. The soft, bust and blackjack checks become lane masks, so nothing
+ * branches on a hand's cards. Only loaded once HandBatchEvaluator has checked
+ * the jdk.incubator.vector module is there
+ * @author Michael Baker
+ */
+final class VectorHandBatchEvaluator implements HandBatchEvaluator {
+   static final VectorHandBatchEvaluator INSTANCE = new VectorHandBatchEvaluator();
+
+   private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+   /**
+    * private constructor - the evaluator holds no state, so one is shared
+    */
+   private VectorHandBatchEvaluator() {
+   }
+
+   @Override
+   public void evaluate(HandBatch batch) {
+      int bound = SPECIES.loopBound(batch.size);
+      ByteVector zero = ByteVector.zero(SPECIES);
+      for (int h = 0; h < bound; h += SPECIES.length()) {
+         ByteVector hardTotal = zero;
+         for (int c = 0; c < batch.maxCards; c++) {
+            hardTotal = hardTotal.add(ByteVector.fromArray(SPECIES, batch.ranks[c], h));
+         }
+
+         // as in Hand, only one ace can ever be counted as 11
+         VectorMask<Byte> soft = ByteVector.fromArray(SPECIES, batch.aceCounts, h).compare(VectorOperators.GT, 0)
+               .and(hardTotal.compare(VectorOperators.LE, 11));
+         ByteVector total = hardTotal.add((byte) 10, soft);
+         VectorMask<Byte> bust = hardTotal.compare(VectorOperators.GT, 21);
+         VectorMask<Byte> blackjack = ByteVector.fromArray(SPECIES, batch.cardCounts, h).eq((byte) 2)
+               .and(total.eq((byte) 21));
+
+         ByteVector flags = zero.blend(HandBatch.SOFT, soft)
+               .or(zero.blend(HandBatch.BUST, bust))
+               .or(zero.blend(HandBatch.BLACKJACK, blackjack));
+         total.intoArray(batch.totals, h);
+         flags.intoArray(batch.flags, h);
+      }
+
+      // the hands that don't fill a whole vector
+      ScalarHandBatchEvaluator.evaluateRange(batch, bound, batch.size);
+   } // end evaluate()
+
+   /**
+    * Function to check if the CPU has vectors of at least 256 bits - AVX2 or
+    * better on x86
+    * @return - true if the vector evaluator beats the scalar one
+    */
+   static boolean isWide() {
+      return SPECIES.vectorBitSize() >= 256;
+   } // end isWide()
+
+   @Override
+   public String getName() {
+      return "vector-" + SPECIES.vectorBitSize();
+   }
+
+}// end of VectorHandBatchEvaluator class
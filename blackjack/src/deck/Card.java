@@ -4,97 +4,121 @@
 package deck;
 
 /**
- * the Card class represents a single card from a standard 52 card deck
+ * the Card class represents a single card from a standard 52 card deck. Cards
+ * are immutable and there is exactly one instance of each of the 52 cards, so
+ * cards are shared by reference rather than copied
  * @author Michael Baker
  */
 public final class Card {
-   private String suit;
-   private String value;
-   private final String SPADES = "♠";
-   private final String HEARTS = "♥";
-   private final String CLUBS = "♣";
-   private final String DIAMONDS = "♦";
+   public static final int NUMBER_OF_CARDS = 52;
+   public static final int NUMBER_OF_RANKS = 13;
+   public static final int NUMBER_OF_RANK_VALUES = 10; // ace (1) through 10
+   public static final String SPADES = "♠";
+   public static final String HEARTS = "♥";
+   public static final String CLUBS = "♣";
+   public static final String DIAMONDS = "♦";
 
-   /**
-    * Constructor The suit and value parameter must be defined for every card
-    * object, so this will be the only constructor
-    * @param suit - a string representing one of the four suits of a deck of cards
-    *        (spades, hearts, diamonds, clubs)
-    * @param value - a string representing the face value of the card (2, 3, 4, 5,
-    *        6, 7, 8, 9, 10, J, Q, K, A)
-    * @precondition - Both inputs must be strings and conform to the required
-    *               inputs
-    * @postcondition - Returns an object of type Card
-    */
-   public Card(String suit, String value) {
-      this.setSuit(suit);
-      this.setValue(value);
-   } // end constructor
+   // suits and values in the order of a newly opened deck - a card's ordinal is
+   // its position in that deck
+   private static final String[] SUITS = { SPADES, HEARTS, CLUBS, DIAMONDS };
+   private static final String[] VALUES = { "2", "3", "4", "5", "6", "7", "8", "9", "10", "j", "q", "k", "a" };
+   private static final int ACE_RANK = 12;
+
+   // the 52 canonical cards, indexed by ordinal
+   private static final Card[] CARDS = new Card[NUMBER_OF_CARDS];
+
+   static {
+      for (int i = 0; i < NUMBER_OF_CARDS; i++) {
+         CARDS[i] = new Card(i);
+      }
+   }
+
+   private final String suit;
+   private final String value;
+   private final byte ordinal;
+   private final byte rank;
+   private final byte rankValue;
+   private final String display;
 
    /**
-    * Copy constructor
-    * @param oldCard - object of type Card
-    * @precondition - expects oldCard to point to an active Card object
-    * @postcondition - returns a new Card object
+    * Private constructor - only used to build the canonical cards
+    * @param ordinal - position of the card in a newly opened deck (0-51)
     */
-   public Card(Card oldCard) {
-      this.setSuit(oldCard.getSuit());
-      this.setValue(oldCard.getValue());
-   } // end copy constructor
+   private Card(int ordinal) {
+      this.ordinal = (byte) ordinal;
+      this.rank = (byte) (ordinal % NUMBER_OF_RANKS);
+      this.suit = SUITS[ordinal / NUMBER_OF_RANKS];
+      this.value = VALUES[this.rank];
+
+      // 2-10 count their face value, J, Q and K count 10 and an ace counts 1 (it is
+      // up to the hand to decide if an ace should be 11)
+      if (this.rank == ACE_RANK) {
+         this.rankValue = 1;
+      } else {
+         this.rankValue = (byte) Math.min(this.rank + 2, 10);
+      }
+
+      if (this.value.equals("10")) {
+         this.display = "| " + this.value + this.suit.charAt(0) + " |";
+      } else {
+         this.display = "|  " + this.value + this.suit.charAt(0) + " |";
+      }
+   } // end constructor
 
    /***********************
-    * Setters
+    * Factories
     **********************/
 
    /**
-    * Private method to set the suit and check the inputs
-    * @param suit - a string representing one of the four suits of a deck of cards
-    *        (spades, hearts, diamonds, clubs)
-    * @precondition - assumes the suit is one of the four defined suits above -
-    *               input checks will verify this
-    * @postcondition - has no output
-    * @throws RuntimeException - thrown if the suit is not one of the defined suits
+    * public function to look up a card by its ordinal
+    * @param ordinal - position of the card in a newly opened deck (0-51)
+    * @return the canonical Card object with that ordinal
+    * @throws RuntimeException - thrown if the ordinal is out of range
     */
-   private void setSuit(String suit) {
-      // remove any uppercase letters
-      suit = suit.toLowerCase();
-      // check for a valid input
-      boolean goodSuit = ((suit.equals(this.SPADES)) || suit.equals(this.HEARTS) || suit.equals(this.DIAMONDS)
-            || suit.equals(this.CLUBS));
-
-      if (goodSuit) {
-         this.suit = suit;
-      } else {
-         throw new RuntimeException("Provided suit is not one of the following : " + this.SPADES + ", " + this.HEARTS
-               + ", " + this.DIAMONDS + ", " + this.CLUBS);
+   public static Card of(int ordinal) {
+      if (ordinal < 0 || ordinal >= NUMBER_OF_CARDS) {
+         throw new RuntimeException("Provided ordinal is not between 0 and " + (NUMBER_OF_CARDS - 1));
       }
-   } // end class setSuit
+      return CARDS[ordinal];
+   } // end of()
 
    /**
-    * Private method to set the suit and check the inputs
+    * public function to look up a card by its suit and value
     * @param suit - a string representing one of the four suits of a deck of cards
     *        (spades, hearts, diamonds, clubs)
-    * @precondition - expects a String input. If its a letter, it must be lowercase
-    *               (but uppercase will be fixed)
-    * @postcondition - has no return
-    * @throws RuntimeException - thrown if the value is not one of the expected
-    *         inputs
+    * @param value - a string representing the face value of the card (2, 3, 4, 5,
+    *        6, 7, 8, 9, 10, J, Q, K, A)
+    * @precondition - Both inputs must be strings and conform to the required
+    *               inputs. If the value is a letter, it may be upper or lowercase
+    * @postcondition - Returns the canonical Card object
+    * @throws RuntimeException - thrown if the suit or value is not one of the
+    *         expected inputs
     */
-   private void setValue(String value) {
-      // remove any uppercase letters
-      value = value.toLowerCase();
-      // check for a valid input
-      boolean goodValue = (value.equals("2") || value.equals("3") || value.equals("4") || value.equals("5")
-            || value.equals("6") || value.equals("7") || value.equals("8") || value.equals("9") || value.equals("10")
-            || value.equals("j") || value.equals("q") || value.equals("k") || value.equals("a"));
-
-      if (goodValue) {
-         this.value = value;
-      } else {
+   public static Card of(String suit, String value) {
+      int suitIndex = -1;
+      for (int i = 0; i < SUITS.length; i++) {
+         if (SUITS[i].equals(suit)) {
+            suitIndex = i;
+         }
+      }
+      if (suitIndex == -1) {
+         throw new RuntimeException(
+               "Provided suit is not one of the following : " + SPADES + ", " + HEARTS + ", " + DIAMONDS + ", " + CLUBS);
+      }
+
+      int valueIndex = -1;
+      for (int i = 0; i < VALUES.length; i++) {
+         if (VALUES[i].equalsIgnoreCase(value)) {
+            valueIndex = i;
+         }
+      }
+      if (valueIndex == -1) {
          throw new RuntimeException(
                "Provided value is not one of the following : 2, 3, 4, 5, 6, 7, 8, 9, 10, j, q, k, a");
       }
-   } // end class setValue
+
+      return CARDS[suitIndex * NUMBER_OF_RANKS + valueIndex];
+   } // end of()
 
    /***********************
     * Getters
@@ -116,6 +140,39 @@ public final class Card {
       return this.value;
    } // end getValue
 
+   /**
+    * public function to get the position of the card in a newly opened deck
+    * @return integer between 0 and 51
+    */
+   public int getOrdinal() {
+      return this.ordinal;
+   } // end getOrdinal
+
+   /**
+    * public function to get the rank of the card regardless of its suit
+    * @return integer between 0 (a two) and 12 (an ace)
+    */
+   public int getRank() {
+      return this.rank;
+   } // end getRank
+
+   /**
+    * public function to get the points the card adds to a hand, counting an ace
+    * as 1
+    * @return integer between 1 and 10
+    */
+   public int getRankValue() {
+      return this.rankValue;
+   } // end getRankValue
+
+   /**
+    * public function to check if the card is an ace
+    * @return true if the card is an ace
+    */
+   public boolean isAce() {
+      return this.rank == ACE_RANK;
+   } // end isAce
+
    /***********************
     * Misc. Functions
     **********************/
@@ -125,12 +182,7 @@ public final class Card {
     * @return String containing the representation of the card
     */
    public String toString() {
-      String cardSuit = this.getSuit();
-      if (this.getValue().equals("10")) {
-         return ("| " + this.getValue() + cardSuit.charAt(0) + " |");
-      } else {
-         return ("|  " + this.getValue() + cardSuit.charAt(0) + " |");
-      }
+      return this.display;
    }
 
 } // end class Card
@@ -3,84 +3,444 @@
  */
 package deck;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
- * Public class to represent a shuffled version of a deck of cards that works
- * like a stack
+ * Public class to represent a shuffled shoe of one or more decks of cards that
+ * works like a stack. A cut card placed at the configured penetration tells the
+ * table when to reshuffle between rounds, so one machine can be dealt from for
+ * any number of rounds. A machine given a ShoeQueue takes each new shoe ready
+ * shuffled from it, instead of shuffling its own cards
  * @author Michael Baker
  */
-public class DealingMachine extends Deck {
-   private byte endOfStack = 51;
+public class DealingMachine extends Deck implements ShoeState {
+   // Hi-Lo tag of each point value - aces and tens count -1, 2-6 count +1
+   private static final int[] HI_LO_TAGS = { -1, 1, 1, 1, 1, 1, 0, 0, 0, -1 };
+
+   private int endOfStack;
+   private int roundStartOfStack; // top of the stack when the current round began
+   private final int cardsBeforeCutCard;
+   private final double penetration;
+   private final int numberOfDecks;
+   private final RandomGenerator randomGenerator;
+   private final ShoeQueue shoes; // null if the machine shuffles its own cards
+
+   // what is left in the stack, updated on every draw
+   private final int[] rankCounts = new int[Card.NUMBER_OF_RANK_VALUES];
+   private int runningCount = 0;
+   private int faceDownRankIndex = -1; // rank index of the dealer's hole card while it is face down
+   private final ShoeState shoeState = new ReadOnlyShoeState();
+
+   // lifetime counts, read by the table's metrics
+   private long cardsDrawn = 0;
+   private long shuffles = 0;
 
    /**
     * Constructor to create a deck object
     * @return DealingMachine object
     */
    public DealingMachine() {
+      this(RandomGenerator.getDefault());
+   } // end Constructor
+
+   /**
+    * Constructor to create a deck object shuffled by the provided random number
+    * generator, so that every simulation worker can shuffle from its own seed.
+    * Seeded generators such as SplittableRandom or L64X128MixRandom give the same
+    * order of cards every time
+    * @param randomGenerator - generator used to shuffle the deck
+    * @precondition Expects an active (not null) RandomGenerator reference that
+    *               is only used by the calling thread
+    * @return DealingMachine object
+    */
+   public DealingMachine(RandomGenerator randomGenerator) {
+      this(1, 1.0, randomGenerator);
+   } // end Constructor
+
+   /**
+    * Constructor to create a shoe made of several decks with a cut card
+    * @param numberOfDecks - number of 52 card decks in the shoe
+    * @param penetration - fraction of the shoe dealt before the cut card comes
+    *        out and the shoe is reshuffled, greater than 0 and at most 1
+    * @param randomGenerator - generator used to shuffle the shoe
+    * @precondition Expects a positive number of decks and an active (not null)
+    *               RandomGenerator reference that is only used by the calling
+    *               thread
+    * @return DealingMachine object
+    */
+   public DealingMachine(int numberOfDecks, double penetration, RandomGenerator randomGenerator) {
+      this(numberOfDecks, penetration, randomGenerator, null);
+   } // end Constructor
+
+   /**
+    * Constructor to create a shoe that swaps in shoes shuffled ahead of time by
+    * a ShuffleAhead producer whenever it is reshuffled
+    * @param numberOfDecks - number of 52 card decks in the shoe
+    * @param penetration - fraction of the shoe dealt before reshuffling
+    * @param randomGenerator - generator used for the rare shuffle of the discards
+    *        when the shoe runs out in the middle of a round
+    * @param shoes - queue of shuffled shoes made for this machine alone, or null
+    *        to shuffle in place
+    * @precondition Expects the queue, if any, to hold shoes of numberOfDecks
+    *               decks
+    * @return DealingMachine object
+    */
+   public DealingMachine(int numberOfDecks, double penetration, RandomGenerator randomGenerator, ShoeQueue shoes) {
       // Create the deck object
-      super();
+      super(numberOfDecks);
+      if (!(penetration > 0.0 && penetration <= 1.0)) {
+         throw new RuntimeException("Penetration must be greater than 0 and at most 1");
+      }
+      if (shoes != null && shoes.getNumberOfDecks() != numberOfDecks) {
+         throw new RuntimeException("The queue holds " + shoes.getNumberOfDecks() + " deck shoes, not "
+               + numberOfDecks);
+      }
+      this.shoes = shoes;
+      this.numberOfDecks = numberOfDecks;
+      this.penetration = penetration;
+      this.cardsBeforeCutCard = Math.max(1, (int) Math.round(penetration * this.cards.length));
+      this.randomGenerator = randomGenerator;
       this.shuffle();
    } // end Constructor
 
+   /**
+    * Constructor for machines that make up their cards as they are drawn instead
+    * of dealing them from a shoe. Such a machine keeps no cards, so it must
+    * override every public function that reads the shoe
+    * @param numberOfDecks - number of decks the machine stands in for
+    * @param randomGenerator - generator the machine draws with
+    */
+   protected DealingMachine(int numberOfDecks, RandomGenerator randomGenerator) {
+      super(new byte[0]);
+      this.shoes = null;
+      this.numberOfDecks = numberOfDecks;
+      this.penetration = 1.0;
+      this.cardsBeforeCutCard = 0;
+      this.randomGenerator = randomGenerator;
+      this.endOfStack = -1;
+   } // end Constructor
+
    /**
     * Public function to "pull" a card from the deck of cards
     * @return random card at the top of the deck
     * @precondition There are no inputs
     * @postcondition Unlike a real stack, the top card is not removed, the pointer
-    *                just moves up the deck as cards are pulled
+    *                just moves up the deck as cards are pulled. If the shoe runs
+    *                out in the middle of a round, the cards discarded in earlier
+    *                rounds are shuffled and dealt from
     */
    public Card draw() {
-      // create return variable
-      Card returnCard;
-
       // Drawing will take the top card off of the deck and remove it from the array
-      if (endOfStack == -1) {
-         throw new RuntimeException("Ran out of cards!");
-      } else {
-         returnCard = new Card(this.cards[endOfStack]);
-         endOfStack--;
+      if (this.endOfStack == -1) {
+         this.shuffleDiscards();
       }
-      return (returnCard);
+      Card card = Card.of(this.cards[this.endOfStack--]);
+      this.cardsDrawn++;
+
+      // keep the composition and count of the stack up to date
+      int rankIndex = card.getRankValue() - 1;
+      this.rankCounts[rankIndex]--;
+      this.runningCount += HI_LO_TAGS[rankIndex];
+      return (card);
    } // end draw()
 
    /**
-    * Private function for use during construction of the DealingMachine class to
-    * create a shuffled version of the deck
+    * Public function to draw the dealer's hole card. It leaves the stack like
+    * any other card, but is counted with the unseen cards until it is turned
+    * over
+    * @return the card drawn
+    * @postcondition getUnseenRankCounts() includes the card, and the running and
+    *                true counts leave it out, until revealFaceDown() is called or
+    *                the next round starts
+    */
+   public Card drawFaceDown() {
+      Card card = this.draw();
+      this.faceDownRankIndex = card.getRankValue() - 1;
+      return (card);
+   } // end drawFaceDown()
+
+   /**
+    * Public function to turn over the card drawn by drawFaceDown(), if it is
+    * still face down
+    */
+   public void revealFaceDown() {
+      this.faceDownRankIndex = -1;
+   } // end revealFaceDown()
+
+   /**
+    * Public function to be called between rounds. Reshuffles the whole shoe if
+    * the cut card has come out and marks the start of the next round
+    * @return true if the shoe was reshuffled
+    * @precondition There are no inputs
+    * @postcondition The shoe is ready to deal the next round
+    */
+   public boolean reshuffleIfNeeded() {
+      boolean reshuffled = this.needsReshuffle();
+      if (reshuffled) {
+         this.shuffle();
+      }
+      this.roundStartOfStack = this.endOfStack;
+      this.faceDownRankIndex = -1;
+      return (reshuffled);
+   } // end reshuffleIfNeeded()
+
+   /**
+    * Public function to check if the cut card has come out
+    * @return true if at least the penetration's share of the shoe has been dealt
+    */
+   public boolean needsReshuffle() {
+      return ((this.cards.length - 1 - this.endOfStack) >= this.cardsBeforeCutCard);
+   } // end needsReshuffle()
+
+   /**
+    * Public function that collects every card back into the machine and shuffles
+    * them in place with a Fisher-Yates shuffle driven by the machine's random
+    * number generator. A machine with a ShoeQueue swaps its cards for a shoe
+    * from the queue instead, which is only a pointer swap when one is ready
     * @precondition - There are no inputs to this function. The function operates
     *               on the list of cards stored in the object
     * @postcondition - has no return, but after the shuffle is done the internal
-    *                deck of cards are shuffled
+    *                deck of cards are shuffled and the top of the stack is reset
     */
-   private void shuffle() {
-      // to achieve the shuffled form, use a set and a random number generator to get
-      // a unique order of values
-      Set<Integer> shuffledIndicies = new HashSet<Integer>();
-      int[] newOrder = new int[52];
-      int i = 0;
+   public void shuffle() {
+      if (this.shoes == null) {
+         this.shuffleRange(this.cards.length);
+      } else {
+         this.cards = this.shoes.swap(this.cards);
+      }
+      this.endOfStack = this.cards.length - 1;
+      this.roundStartOfStack = this.endOfStack;
 
-      while (shuffledIndicies.size() < 52) {
-         // generate a random integer within the range 0-51
-         Integer currentRandomInt = (int) (52 * Math.random());
+      // every card is back in the stack
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES - 1; i++) {
+         this.rankCounts[i] = 4 * this.numberOfDecks;
+      }
+      this.rankCounts[Card.NUMBER_OF_RANK_VALUES - 1] = 16 * this.numberOfDecks;
+      this.runningCount = 0;
+      this.faceDownRankIndex = -1;
+      this.shuffles++;
+   }// end shuffle()
 
-         // if the value is in the set, add it, if not, continue
-         if (shuffledIndicies.contains(currentRandomInt)) {
-            continue;
-         } else {
-            shuffledIndicies.add(currentRandomInt);
-            newOrder[i] = currentRandomInt;
-            i++;
-         }
+   /**
+    * public getter function for a read-only view of what is left in the shoe
+    * @return - ShoeState that follows this machine as cards are drawn
+    */
+   public ShoeState getShoeState() {
+      return (this.shoeState);
+   }
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter function for the number of cards left above the bottom of the
+    * shoe
+    * @return - number of cards that can still be drawn before reshuffling
+    */
+   @Override
+   public int getCardsRemaining() {
+      return (this.endOfStack + 1);
+   }
+
+   @Override
+   public void getRemainingRankCounts(int[] rankCounts) {
+      System.arraycopy(this.rankCounts, 0, rankCounts, 0, Card.NUMBER_OF_RANK_VALUES);
+   }
+
+   @Override
+   public void getUnseenRankCounts(int[] rankCounts) {
+      this.getRemainingRankCounts(rankCounts);
+      if (this.faceDownRankIndex >= 0) {
+         rankCounts[this.faceDownRankIndex]++;
       }
+   }
 
-      // create a new deck from scratch
-      Deck tempDeck = new Deck();
+   @Override
+   public int getRemainingCount(int rankValue) {
+      return (this.rankCounts[rankValue - 1]);
+   }
 
-      // iterate through new indicies and replace cards at those indicies
-      for (int j = 0; j < 52; j++) {
-         this.cards[j] = new Card(tempDeck.cards[newOrder[j]]);
+   /**
+    * public getter function for the Hi-Lo running count of the cards seen. A
+    * hole card still face down has left the stack but isn't counted yet
+    * @return - the running count since the last shuffle
+    */
+   @Override
+   public int getRunningCount() {
+      if (this.faceDownRankIndex >= 0) {
+         return (this.runningCount - HI_LO_TAGS[this.faceDownRankIndex]);
       }
+      return (this.runningCount);
+   }
+
+   /**
+    * public getter function for the Hi-Lo true count, divided over the unseen
+    * cards so it agrees with getRunningCount() while the hole card is face down
+    * @return - the true count, 0 when no card is unseen
+    */
+   @Override
+   public double getTrueCount() {
+      int cardsUnseen = this.getCardsRemaining() + ((this.faceDownRankIndex >= 0) ? 1 : 0);
+      return (cardsUnseen == 0) ? 0.0 : this.getRunningCount() * (double) Card.NUMBER_OF_CARDS / cardsUnseen;
+   }
+
+   /**
+    * public getter function for the number of decks in the shoe
+    * @return - number of 52 card decks
+    */
+   @Override
+   public int getNumberOfDecks() {
+      return (this.numberOfDecks);
+   }
 
+   /**
+    * public getter function for the number of cards drawn since the machine was
+    * made
+    * @return - number of cards drawn
+    */
+   public long getCardsDrawn() {
+      return (this.cardsDrawn);
+   }
+
+   /**
+    * public getter function for the number of times the machine has shuffled,
+    * counting the shuffle it was made with and any mid-round shuffle of the
+    * discards
+    * @return - number of shuffles
+    */
+   public long getShuffles() {
+      return (this.shuffles);
+   }
+
+   /**
+    * public getter function for the penetration of the cut card
+    * @return - fraction of the shoe dealt before reshuffling
+    */
+   public double getPenetration() {
+      return (this.penetration);
+   }
+
+   /**
+    * Static function that shuffles the bottom of an array of cards in place with
+    * a Fisher-Yates shuffle. Also used by ShoeQueue to shuffle shoes ahead
+    * @param cards - the cards to shuffle
+    * @param length - number of cards, counted from index 0, to shuffle
+    * @param randomGenerator - generator the shuffle is driven by
+    */
+   static void shuffle(byte[] cards, int length, RandomGenerator randomGenerator) {
+      // walk down the cards, swapping each card with one at or below it
+      for (int i = length - 1; i > 0; i--) {
+         int j = randomGenerator.nextInt(i + 1);
+         byte temp = cards[i];
+         cards[i] = cards[j];
+         cards[j] = temp;
+      }
    }// end shuffle()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that shuffles the bottom of the cards array in place with
+    * the machine's own random number generator
+    * @param length - number of cards, counted from index 0, to shuffle
+    */
+   private void shuffleRange(int length) {
+      shuffle(this.cards, length, this.randomGenerator);
+   }// end shuffleRange()
+
+   /**
+    * Private function used when the shoe runs dry in the middle of a round. The
+    * cards on the table stay out of play, and the discards of earlier rounds are
+    * moved to the bottom of the array and shuffled into a new stack
+    */
+   private void shuffleDiscards() {
+      // cards above the round's starting point were discarded in earlier rounds,
+      // cards at or below it are in front of the players
+      int cardsOnTable = this.roundStartOfStack + 1;
+      int discards = this.cards.length - cardsOnTable;
+      if (discards == 0) {
+         throw new RuntimeException("Ran out of cards!");
+      }
+
+      // rotate the cards on the table to the top of the array by reversing both
+      // blocks and then the whole array
+      this.reverse(0, cardsOnTable - 1);
+      this.reverse(cardsOnTable, this.cards.length - 1);
+      this.reverse(0, this.cards.length - 1);
+
+      this.shuffleRange(discards);
+      this.endOfStack = discards - 1;
+      this.shuffles++;
+
+      // only the discards are left to draw - count them and treat every other card
+      // as seen
+      int tagsLeft = 0;
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES; i++) {
+         this.rankCounts[i] = 0;
+      }
+      for (int i = 0; i <= this.endOfStack; i++) {
+         int rankIndex = Card.of(this.cards[i]).getRankValue() - 1;
+         this.rankCounts[rankIndex]++;
+         tagsLeft += HI_LO_TAGS[rankIndex];
+      }
+      this.runningCount = -tagsLeft;
+
+      // every card is now either in the new stack or on the table, none are left
+      // to fall back on for the rest of this round
+      this.roundStartOfStack = this.cards.length - 1;
+   }// end shuffleDiscards()
+
+   /**
+    * Private function that reverses the cards between two indexes in place
+    * @param from - first index, inclusive
+    * @param to - last index, inclusive
+    */
+   private void reverse(int from, int to) {
+      while (from < to) {
+         byte temp = this.cards[from];
+         this.cards[from++] = this.cards[to];
+         this.cards[to--] = temp;
+      }
+   }// end reverse()
+
+   /**
+    * View of the machine's counts that can't be used to draw or shuffle
+    */
+   private final class ReadOnlyShoeState implements ShoeState {
+      @Override
+      public int getCardsRemaining() {
+         return DealingMachine.this.getCardsRemaining();
+      }
+
+      @Override
+      public int getRemainingCount(int rankValue) {
+         return DealingMachine.this.getRemainingCount(rankValue);
+      }
+
+      @Override
+      public void getRemainingRankCounts(int[] rankCounts) {
+         DealingMachine.this.getRemainingRankCounts(rankCounts);
+      }
+
+      @Override
+      public void getUnseenRankCounts(int[] rankCounts) {
+         DealingMachine.this.getUnseenRankCounts(rankCounts);
+      }
+
+      @Override
+      public int getRunningCount() {
+         return DealingMachine.this.getRunningCount();
+      }
+
+      @Override
+      public double getTrueCount() {
+         return DealingMachine.this.getTrueCount();
+      }
+
+      @Override
+      public int getNumberOfDecks() {
+         return DealingMachine.this.getNumberOfDecks();
+      }
+   }// end of ReadOnlyShoeState class
 }// end of DealingMachine class
@@ -9,31 +9,52 @@ package deck;
  */
 public class Deck {
    // protected variable because dealing machine needs access to it to make a
-   // shuffled deck
-   protected Card[] cards = new Card[52];
-   private final String SPADES = "♠";
-   private final String HEARTS = "♥";
-   private final String CLUBS = "♣";
-   private final String DIAMONDS = "♦";
+   // shuffled deck. Cards are stored by ordinal so a large shoe stays compact
+   protected byte[] cards;
 
    /**
-    * Constructor method - only one constructor representing opening a new pack of
-    * cards
-    * @postcondition - will always return an array of 52 card objects in order
-    *                2-Ace diamonds, hearts, clubs, spades
+    * Constructor method representing opening a new pack of cards
+    * @postcondition - will always return an array of 52 cards in order 2-Ace
+    *                spades, hearts, clubs, diamonds
     */
    public Deck() {
-      String[] standardSuits = { this.SPADES, this.HEARTS, this.CLUBS, this.DIAMONDS };
-      String[] standardValues = { "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A" };
+      this(1);
+   }
 
-      // need an iterator variable
-      int i = 0;
+   /**
+    * Constructor method representing opening several new packs of cards and
+    * stacking them on top of each other, as is done to fill a shoe
+    * @param numberOfDecks - number of 52 card packs to open
+    * @precondition - expects a positive integer
+    * @postcondition - will always return numberOfDecks runs of 52 cards in order
+    *                2-Ace spades, hearts, clubs, diamonds
+    */
+   public Deck(int numberOfDecks) {
+      if (numberOfDecks <= 0) {
+         throw new RuntimeException("A deck must be made of at least one pack of cards");
+      }
+      this.cards = new byte[numberOfDecks * Card.NUMBER_OF_CARDS];
+      openPacks(this.cards);
+   }
 
-      for (var S : standardSuits) {
-         for (var V : standardValues) {
-            this.cards[i] = new Card(S, V);
-            i++;
-         }
+   /**
+    * Constructor for decks that keep their cards in an array of their own
+    * choosing, which may be empty for a deck that keeps no cards at all
+    * @param cards - the deck's cards, by ordinal
+    */
+   protected Deck(byte[] cards) {
+      this.cards = cards;
+   }
+
+   /**
+    * Static function that puts an array of cards back in the order of newly
+    * opened packs
+    * @param cards - array holding a whole number of packs
+    */
+   static void openPacks(byte[] cards) {
+      // a card's ordinal is its position in a newly opened pack
+      for (int i = 0; i < cards.length; i++) {
+         cards[i] = (byte) (i % Card.NUMBER_OF_CARDS);
       }
    }
 
@@ -43,12 +64,20 @@ public class Deck {
    /**
     * public getter function for the card contents at the specified index in the
     * deck
-    * @return - a new card object, not a reference to the stored card object
+    * @return - the card stored at the index. Cards are immutable, so it is safe
+    *         to share the reference
     */
 
    public Card getCardAt(int i) {
-      // return a new card object for the card housed at cards[i]
-      return (new Card(this.cards[i]));
+      return (Card.of(this.cards[i]));
+   }
+
+   /**
+    * public getter function for the number of cards in the deck
+    * @return - 52 times the number of packs the deck was made of
+    */
+   public int getNumberOfCards() {
+      return (this.cards.length);
    }
 
    /***************
@@ -61,8 +90,8 @@ public class Deck {
     */
    public String toString() {
       String outStr = "";
-      for (int i = 0; i < 52; i++) {
-         outStr += this.cards[i].toString() + "\n";
+      for (int i = 0; i < this.cards.length; i++) {
+         outStr += this.getCardAt(i).toString() + "\n";
       }
 
       return (outStr);
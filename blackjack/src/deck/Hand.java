@@ -0,0 +1,158 @@
+/**
+ * 
+ */
+package deck;
+
+/**
+ * Public class to represent the cards held by a single actor. Cards are kept by
+ * ordinal in a pre-sized array and the hand's total is updated as each card is
+ * added, so totals, blackjack and bust checks never have to walk the cards
+ * @author Michael Baker
+ */
+public final class Hand {
+   // a hand can hold at most 21 cards without going over 21, and one more busts it
+   public static final int MAX_CARDS = 22;
+
+   private final byte[] cards = new byte[MAX_CARDS];
+   private int size = 0;
+   private int hardTotal = 0; // every ace counted as 1
+   private int aceCount = 0;
+
+   /**
+    * Constructor - a new hand holds no cards
+    */
+   public Hand() {
+   }
+
+   /***************
+    **** Setters
+    ***************/
+   /**
+    * public function that adds a card to the hand and updates the running total
+    * @param card - the card to add
+    * @precondition - expects the hand has not already gone over 21
+    * @postcondition - has no return, the card is the last card in the hand
+    */
+   public void add(Card card) {
+      if (this.size == MAX_CARDS) {
+         throw new RuntimeException("A hand cannot hold more than " + MAX_CARDS + " cards");
+      }
+      this.cards[this.size++] = (byte) card.getOrdinal();
+      this.hardTotal += card.getRankValue();
+      if (card.isAce()) {
+         this.aceCount++;
+      }
+   } // end add()
+
+   /**
+    * public function that removes every card from the hand so it can be reused
+    * @postcondition - the hand is empty
+    */
+   public void clear() {
+      this.size = 0;
+      this.hardTotal = 0;
+      this.aceCount = 0;
+   } // end clear()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public function that returns the value of the hand. An ace counts as 11 if
+    * that does not take the hand over 21, and as 1 otherwise
+    * @return - integer equal to the value of the hand
+    */
+   public int getTotal() {
+      // only one ace can ever be counted as 11 - two would make 22
+      return this.isSoft() ? this.hardTotal + 10 : this.hardTotal;
+   } // end getTotal()
+
+   /**
+    * public function that returns the value of the hand with every ace counted
+    * as 1
+    * @return - integer equal to the hard total of the hand
+    */
+   public int getHardTotal() {
+      return this.hardTotal;
+   } // end getHardTotal()
+
+   /**
+    * public function to check if one of the hand's aces is counted as 11
+    * @return - true if the hand is soft
+    */
+   public boolean isSoft() {
+      return (this.aceCount > 0) && (this.hardTotal + 10 <= 21);
+   } // end isSoft()
+
+   /**
+    * public function to check if the hand is a natural - 21 with two cards
+    * @return - true if the hand is a blackjack
+    */
+   public boolean isBlackjack() {
+      return (this.size == 2) && (this.getTotal() == 21);
+   } // end isBlackjack()
+
+   /**
+    * public function to check if the hand has gone over 21
+    * @return - true if the hand is bust
+    */
+   public boolean isBust() {
+      return this.hardTotal > 21;
+   } // end isBust()
+
+   /**
+    * public function that returns the number of aces in the hand
+    * @return - number of aces
+    */
+   public int getAceCount() {
+      return this.aceCount;
+   } // end getAceCount()
+
+   /**
+    * public function that returns the number of cards in the hand
+    * @return - number of cards
+    */
+   public int size() {
+      return this.size;
+   } // end size()
+
+   /**
+    * public function that returns the card at a position in the hand
+    * @param i - position of the card, 0 being the first card dealt
+    * @return - the card at that position
+    */
+   public Card getCard(int i) {
+      if (i < 0 || i >= this.size) {
+         throw new RuntimeException("There is no card at position " + i + " in the hand");
+      }
+      return Card.of(this.cards[i]);
+   } // end getCard()
+
+   /**
+    * public function that copies the hand into a new array of cards
+    * @return - array of the cards in the order they were dealt
+    */
+   public Card[] toArray() {
+      Card[] out = new Card[this.size];
+      for (int i = 0; i < this.size; i++) {
+         out[i] = Card.of(this.cards[i]);
+      }
+      return out;
+   } // end toArray()
+
+   /***************
+    **** Misc.
+    ***************/
+   /**
+    * overwriting Java toString() function to print the cards in the hand
+    * @return String containing the cards separated by tabs
+    */
+   public String toString() {
+      String outStr = "";
+      for (int i = 0; i < this.size; i++) {
+         outStr += this.getCard(i).toString() + "\t";
+      }
+      return outStr;
+   }
+
+}// end of Hand class
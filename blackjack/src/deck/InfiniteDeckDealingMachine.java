@@ -0,0 +1,272 @@
+/**
+ *
+ */
+package deck;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Public class to represent a shoe with an infinite number of decks. Every card
+ * is drawn with replacement from a fixed composition, so the odds of each card
+ * never change as the round goes on, and there are no cards to store, shuffle
+ * or run out of. It plugs into the same tables as a DealingMachine, for quick
+ * strategy exploration where the make up of a real shoe doesn't matter.
+ *
+ * Cards are picked with Walker's alias method, using Vose's construction of the
+ * alias table - each of the 52 cards gets a column holding its own share of the
+ * odds and one other card to fill the rest of the column. A draw then costs one
+ * random number whatever the composition: its top bits pick a column and its
+ * bottom bits pick between the column's two cards
+ * @author Michael Baker
+ */
+public class InfiniteDeckDealingMachine extends DealingMachine {
+   // bottom bits of a draw compared against a column's threshold
+   private static final long COLUMN_ODDS_BITS = 32;
+   private static final long ALWAYS_OWN_CARD = 1L << COLUMN_ODDS_BITS;
+
+   private final RandomGenerator randomGenerator;
+   private final int[] rankCounts = new int[Card.NUMBER_OF_RANK_VALUES];
+   private final int cardsInComposition;
+
+   // the alias table, indexed by card ordinal
+   private final long[] thresholds = new long[Card.NUMBER_OF_CARDS];
+   private final byte[] aliases = new byte[Card.NUMBER_OF_CARDS];
+
+   private long cardsDrawn = 0;
+
+   /**
+    * Constructor to create an infinite deck with the make up of a newly opened
+    * shoe
+    * @param numberOfDecks - number of decks the composition reported to the
+    *        players' strategies is made of. It does not change the odds of any
+    *        card
+    * @param randomGenerator - generator the cards are drawn with
+    * @precondition Expects a positive number of decks and an active (not null)
+    *               RandomGenerator reference that is only used by the calling
+    *               thread
+    * @return InfiniteDeckDealingMachine object
+    */
+   public InfiniteDeckDealingMachine(int numberOfDecks, RandomGenerator randomGenerator) {
+      this(newShoeComposition(numberOfDecks), randomGenerator);
+   } // end Constructor
+
+   /**
+    * Constructor to create an infinite deck with any make up, such as the cards
+    * left in a real shoe part way through, to see how a rich or poor shoe would
+    * play if it stayed that way
+    * @param rankCounts - number of cards of each point value, index 0 being aces
+    *        and index 9 ten-valued cards. The odds of a point value are its share
+    *        of the total, split evenly between the cards of that value
+    * @param randomGenerator - generator the cards are drawn with
+    * @precondition Expects Card.NUMBER_OF_RANK_VALUES counts that are not
+    *               negative and are not all 0
+    * @return InfiniteDeckDealingMachine object
+    */
+   public InfiniteDeckDealingMachine(int[] rankCounts, RandomGenerator randomGenerator) {
+      super(decksIn(rankCounts), randomGenerator);
+      System.arraycopy(rankCounts, 0, this.rankCounts, 0, Card.NUMBER_OF_RANK_VALUES);
+      int total = 0;
+      for (int count : rankCounts) {
+         total += count;
+      }
+      this.cardsInComposition = total;
+      this.randomGenerator = randomGenerator;
+      this.buildAliasTable();
+   } // end Constructor
+
+   /**
+    * Public function to draw a card, which is never used up
+    * @return a card picked at random from the composition
+    * @precondition There are no inputs
+    * @postcondition The odds of every card are the same for the next draw
+    */
+   @Override
+   public Card draw() {
+      long bits = this.randomGenerator.nextLong();
+      int column = (int) (((bits >>> COLUMN_ODDS_BITS) * Card.NUMBER_OF_CARDS) >>> COLUMN_ODDS_BITS);
+      int ordinal = ((bits & (ALWAYS_OWN_CARD - 1)) < this.thresholds[column]) ? column : this.aliases[column];
+      this.cardsDrawn++;
+      return (Card.of(ordinal));
+   } // end draw()
+
+   /**
+    * Public function to be called between rounds. An infinite deck never needs
+    * reshuffling
+    * @return false
+    */
+   @Override
+   public boolean reshuffleIfNeeded() {
+      return (false);
+   } // end reshuffleIfNeeded()
+
+   /**
+    * Public function to check if the cut card has come out. An infinite deck has
+    * no cut card
+    * @return false
+    */
+   @Override
+   public boolean needsReshuffle() {
+      return (false);
+   } // end needsReshuffle()
+
+   /**
+    * Public function that does nothing - every draw is already as random as a
+    * freshly shuffled shoe
+    */
+   @Override
+   public void shuffle() {
+   } // end shuffle()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter function for the number of cards in the composition, which
+    * are never used up
+    * @return - total of the composition's counts
+    */
+   @Override
+   public int getCardsRemaining() {
+      return (this.cardsInComposition);
+   }
+
+   @Override
+   public void getRemainingRankCounts(int[] rankCounts) {
+      System.arraycopy(this.rankCounts, 0, rankCounts, 0, Card.NUMBER_OF_RANK_VALUES);
+   }
+
+   /**
+    * public getter function for the unseen cards, which are the composition -
+    * taking a card out of an infinite deck, hole card or not, changes nothing
+    * @param rankCounts - filled like getRemainingRankCounts()
+    */
+   @Override
+   public void getUnseenRankCounts(int[] rankCounts) {
+      this.getRemainingRankCounts(rankCounts);
+   }
+
+   @Override
+   public int getRemainingCount(int rankValue) {
+      return (this.rankCounts[rankValue - 1]);
+   }
+
+   /**
+    * public getter function for the Hi-Lo count, which never moves when no card
+    * is ever removed
+    * @return - 0
+    */
+   @Override
+   public int getRunningCount() {
+      return (0);
+   }
+
+   @Override
+   public double getTrueCount() {
+      return (0.0);
+   }
+
+   @Override
+   public long getCardsDrawn() {
+      return (this.cardsDrawn);
+   }
+
+   /**
+    * public getter function for the number of shuffles, of which there are none
+    * @return - 0
+    */
+   @Override
+   public long getShuffles() {
+      return (0);
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that builds the alias table with Vose's method. Every card
+    * is scaled so the average card's odds fill exactly one column. Cards below
+    * that are topped up by a card above it, which gives up the difference and
+    * goes back on the list it now belongs to
+    */
+   private void buildAliasTable() {
+      double[] scaledOdds = new double[Card.NUMBER_OF_CARDS];
+      int[] small = new int[Card.NUMBER_OF_CARDS];
+      int[] large = new int[Card.NUMBER_OF_CARDS];
+      int smallCount = 0;
+      int largeCount = 0;
+      for (int ordinal = 0; ordinal < Card.NUMBER_OF_CARDS; ordinal++) {
+         int rankValue = Card.of(ordinal).getRankValue();
+         // a pack holds 4 cards of each point value but 16 worth ten
+         double cardsOfValueInPack = (rankValue == 10) ? 16.0 : 4.0;
+         scaledOdds[ordinal] = this.rankCounts[rankValue - 1] / cardsOfValueInPack * Card.NUMBER_OF_CARDS
+               / this.cardsInComposition;
+         if (scaledOdds[ordinal] < 1.0) {
+            small[smallCount++] = ordinal;
+         } else {
+            large[largeCount++] = ordinal;
+         }
+      }
+
+      while (smallCount > 0 && largeCount > 0) {
+         int less = small[--smallCount];
+         int more = large[--largeCount];
+         this.thresholds[less] = Math.round(scaledOdds[less] * ALWAYS_OWN_CARD);
+         this.aliases[less] = (byte) more;
+         scaledOdds[more] = (scaledOdds[more] + scaledOdds[less]) - 1.0;
+         if (scaledOdds[more] < 1.0) {
+            small[smallCount++] = more;
+         } else {
+            large[largeCount++] = more;
+         }
+      }
+      // whatever is left is a whole column, give or take rounding
+      while (largeCount > 0) {
+         int more = large[--largeCount];
+         this.thresholds[more] = ALWAYS_OWN_CARD;
+         this.aliases[more] = (byte) more;
+      }
+      while (smallCount > 0) {
+         int less = small[--smallCount];
+         this.thresholds[less] = ALWAYS_OWN_CARD;
+         this.aliases[less] = (byte) less;
+      }
+   }// end buildAliasTable()
+
+   /**
+    * Private function for the composition of a newly opened shoe
+    */
+   private static int[] newShoeComposition(int numberOfDecks) {
+      if (numberOfDecks <= 0) {
+         throw new RuntimeException("A deck must be made of at least one pack of cards");
+      }
+      int[] rankCounts = new int[Card.NUMBER_OF_RANK_VALUES];
+      for (int i = 0; i < Card.NUMBER_OF_RANK_VALUES - 1; i++) {
+         rankCounts[i] = 4 * numberOfDecks;
+      }
+      rankCounts[Card.NUMBER_OF_RANK_VALUES - 1] = 16 * numberOfDecks;
+      return (rankCounts);
+   }// end newShoeComposition()
+
+   /**
+    * Private function that checks a composition and finds how many packs it
+    * would take to hold it, at least one
+    */
+   private static int decksIn(int[] rankCounts) {
+      if (rankCounts.length != Card.NUMBER_OF_RANK_VALUES) {
+         throw new RuntimeException("A composition has " + Card.NUMBER_OF_RANK_VALUES + " counts, not "
+               + rankCounts.length);
+      }
+      long total = 0;
+      for (int count : rankCounts) {
+         if (count < 0) {
+            throw new RuntimeException("A composition cannot hold fewer than 0 cards of a value");
+         }
+         total += count;
+      }
+      if (total == 0 || total > Integer.MAX_VALUE) {
+         throw new RuntimeException("A composition must hold at least one card, and fewer than 2^31");
+      }
+      return (int) Math.max(1, (total + Card.NUMBER_OF_CARDS - 1) / Card.NUMBER_OF_CARDS);
+   }// end decksIn()
+
+}// end of InfiniteDeckDealingMachine class
@@ -0,0 +1,203 @@
+/**
+ *
+ */
+package deck;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Public class that holds the shoes a ShuffleAhead producer has shuffled for one
+ * DealingMachine. It is made of two bounded, lock-free rings of card arrays:
+ * ready shoes go from the producer to the machine, and used shoes go back from
+ * the machine to be shuffled again, so no shoe is ever allocated after the
+ * queue is made. A slot holding null is empty, and each ring has a single
+ * thread putting shoes in and a single thread taking them out.
+ *
+ * Once the ready ring is full the producer moves on to other queues, so a
+ * queue never holds more than its capacity of shoes. If the machine needs a
+ * shoe before one is ready it shuffles its own cards instead, with the queue's
+ * generator - the shoes come out in the same order either way, so a seeded
+ * queue always deals the same cards however the threads are scheduled
+ * @author Michael Baker
+ */
+public final class ShoeQueue implements AutoCloseable {
+   private final ShuffleAhead producer;
+   private final int numberOfDecks;
+   // only used by whichever thread holds the shuffling flag
+   private final RandomGenerator randomGenerator;
+   private final AtomicBoolean shuffling = new AtomicBoolean();
+   private final AtomicReferenceArray<byte[]> ready;
+   private final AtomicReferenceArray<byte[]> used;
+   private int readyHead = 0; // next ready shoe, only moved by the machine
+   private int readyTail = 0; // next empty ready slot, only moved by the producer
+   private int usedHead = 0; // next used shoe, only moved by the producer
+   private int usedTail = 0; // next empty used slot, only moved by the machine
+   private volatile boolean closed = false;
+
+   /**
+    * Constructor for a queue, made by ShuffleAhead.newQueue()
+    * @param producer - the producer that fills the queue
+    * @param numberOfDecks - number of decks in each shoe
+    * @param capacity - most shoes kept shuffled ahead
+    * @param randomGenerator - generator every shoe is shuffled with
+    * @precondition - expects positive decks and capacity
+    */
+   ShoeQueue(ShuffleAhead producer, int numberOfDecks, int capacity, RandomGenerator randomGenerator) {
+      if (numberOfDecks <= 0 || capacity <= 0) {
+         throw new RuntimeException("A shoe queue needs at least one deck and room for at least one shoe");
+      }
+      this.producer = producer;
+      this.numberOfDecks = numberOfDecks;
+      this.randomGenerator = randomGenerator;
+      this.ready = new AtomicReferenceArray<>(capacity);
+      // with the machine's own cards there is always one more shoe than the ready
+      // ring holds, so every shoe away from the machine fits in the used ring
+      this.used = new AtomicReferenceArray<>(capacity);
+      for (int i = 0; i < capacity; i++) {
+         this.used.set(i, new byte[numberOfDecks * Card.NUMBER_OF_CARDS]);
+      }
+   } // end Constructor
+
+   /**
+    * public function that stops the producer filling the queue. The machine can
+    * keep dealing, shuffling its own cards once the ready shoes run out
+    */
+   @Override
+   public void close() {
+      this.closed = true;
+      this.producer.wake();
+   } // end close()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the size of the queue's shoes
+    * @return - number of decks in each shoe
+    */
+   public int getNumberOfDecks() {
+      return this.numberOfDecks;
+   }
+
+   /**
+    * public getter for the number of shoes the queue can hold ready
+    * @return - the capacity of the queue
+    */
+   public int getCapacity() {
+      return this.ready.length();
+   }
+
+   /***************
+    **** Used by the machine
+    ***************/
+   /**
+    * Function that trades the machine's used cards for a newly shuffled shoe
+    * @param cards - the machine's cards, which it no longer deals from
+    * @return - a shuffled shoe. Ready shoes are swapped in at once, otherwise the
+    *         cards given are shuffled in place and handed back
+    */
+   byte[] swap(byte[] cards) {
+      byte[] shoe = this.takeReady();
+      while (shoe == null) {
+         if (this.shuffling.compareAndSet(false, true)) {
+            try {
+               // the producer may have finished a shoe since the last look
+               shoe = this.takeReady();
+               if (shoe == null) {
+                  shuffle(cards, this.randomGenerator);
+                  this.producer.shoeShuffledInline();
+                  return cards;
+               }
+            } finally {
+               this.shuffling.set(false);
+            }
+         } else {
+            // the producer is part way through this machine's next shoe
+            Thread.yield();
+         }
+      }
+
+      this.used.set(this.usedTail, cards);
+      this.usedTail = next(this.usedTail, this.used.length());
+      this.producer.shoeSwapped();
+      this.producer.wake();
+      return shoe;
+   } // end swap()
+
+   /***************
+    **** Used by the producer
+    ***************/
+   /**
+    * Function to check if the producer has a shoe to shuffle and room to put it
+    * @return - true if produce() would shuffle a shoe
+    */
+   boolean canProduce() {
+      return (this.ready.get(this.readyTail) == null) && (this.used.get(this.usedHead) != null);
+   } // end canProduce()
+
+   /**
+    * Function that shuffles one used shoe and puts it in the ready ring
+    * @return - true if a shoe was shuffled, false if the ready ring is full,
+    *         there is no used shoe, or the machine is shuffling for itself
+    */
+   boolean produce() {
+      if (!this.canProduce() || !this.shuffling.compareAndSet(false, true)) {
+         return false;
+      }
+      try {
+         byte[] shoe = this.used.get(this.usedHead);
+         this.used.set(this.usedHead, null);
+         this.usedHead = next(this.usedHead, this.used.length());
+         shuffle(shoe, this.randomGenerator);
+         this.ready.set(this.readyTail, shoe);
+         this.readyTail = next(this.readyTail, this.ready.length());
+      } finally {
+         this.shuffling.set(false);
+      }
+      return true;
+   } // end produce()
+
+   /**
+    * Function to check if the queue has been closed
+    * @return - true once close() has been called
+    */
+   boolean isClosed() {
+      return this.closed;
+   } // end isClosed()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that takes the next ready shoe out of the ready ring
+    * @return - the shoe, or null if none is ready
+    */
+   private byte[] takeReady() {
+      byte[] shoe = this.ready.get(this.readyHead);
+      if (shoe != null) {
+         this.ready.set(this.readyHead, null);
+         this.readyHead = next(this.readyHead, this.ready.length());
+      }
+      return shoe;
+   } // end takeReady()
+
+   /**
+    * Private function that shuffles a shoe from the order of newly opened packs,
+    * so the result only depends on the generator and not on which array was
+    * used
+    */
+   private static void shuffle(byte[] shoe, RandomGenerator randomGenerator) {
+      Deck.openPacks(shoe);
+      DealingMachine.shuffle(shoe, shoe.length, randomGenerator);
+   } // end shuffle()
+
+   /**
+    * Private function for the slot after the given one in a ring
+    */
+   private static int next(int slot, int length) {
+      return (slot + 1 == length) ? 0 : slot + 1;
+   } // end next()
+
+}// end of ShoeQueue class
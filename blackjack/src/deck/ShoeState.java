@@ -0,0 +1,64 @@
+/**
+ * 
+ */
+package deck;
+
+/**
+ * Read-only view of what is left in a shoe. The counts are kept up to date as
+ * cards are drawn, so reading them never scans the cards
+ * 
+ * @author Michael Baker
+ */
+public interface ShoeState {
+   /**
+    * Function that returns the number of cards left to draw
+    * @return - number of cards left in the stack
+    */
+   public int getCardsRemaining();
+
+   /**
+    * Function that returns the number of cards left of one point value
+    * @param rankValue - point value of the cards, 1 for aces and 10 for tens and
+    *        face cards
+    * @return - number of cards of that value left to draw
+    */
+   public int getRemainingCount(int rankValue);
+
+   /**
+    * Function that copies the number of cards left of every point value
+    * @param rankCounts - array of Card.NUMBER_OF_RANK_VALUES integers, filled so
+    *        that index 0 holds the number of aces left and index 9 the number of
+    *        cards worth 10 left
+    */
+   public void getRemainingRankCounts(int[] rankCounts);
+
+   /**
+    * Function that copies the number of cards of every point value a player
+    * hasn't seen - the cards left to draw, and the dealer's hole card while it
+    * is still face down. This is the composition the rest of a round is drawn
+    * from as far as the player can tell
+    * @param rankCounts - array of Card.NUMBER_OF_RANK_VALUES integers, filled
+    *        like getRemainingRankCounts()
+    */
+   public void getUnseenRankCounts(int[] rankCounts);
+
+   /**
+    * Function that returns the Hi-Lo running count - +1 for every 2-6 seen and -1
+    * for every 10-valued card or ace seen
+    * @return - the running count since the last shuffle
+    */
+   public int getRunningCount();
+
+   /**
+    * Function that returns the Hi-Lo true count - the running count per deck left
+    * to draw
+    * @return - the true count, 0 when the stack is empty
+    */
+   public double getTrueCount();
+
+   /**
+    * Function that returns the number of decks the shoe holds when full
+    * @return - number of 52 card decks
+    */
+   public int getNumberOfDecks();
+}// end of ShoeState
@@ -0,0 +1,168 @@
+/**
+ *
+ */
+package deck;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.random.RandomGenerator;
+
+/**
+ * Public class for a background thread that shuffles shoes ahead of time, so a
+ * table reshuffling between rounds swaps in a ready shoe instead of shuffling
+ * hundreds of cards while its players wait. Every DealingMachine gets a
+ * ShoeQueue of its own from newQueue(), and the producer tops the queues up one
+ * shoe at a time in turn. When every queue is full, or has no used shoe to
+ * shuffle, the producer parks until a machine hands a shoe back
+ * @author Michael Baker
+ */
+public final class ShuffleAhead implements AutoCloseable {
+   public static final int DEFAULT_SHOES_AHEAD = 2;
+
+   private final List<ShoeQueue> queues = new CopyOnWriteArrayList<>();
+   private final Thread producer;
+   private volatile boolean running = true;
+   private volatile boolean sleeping = false;
+
+   private final LongAdder shoesSwapped = new LongAdder();
+   private final LongAdder shoesShuffledInline = new LongAdder();
+
+   /**
+    * Constructor for a producer
+    * @param name - name of the producer's thread
+    * @postcondition - the thread is made but not started
+    */
+   public ShuffleAhead(String name) {
+      // a daemon thread, so a producer left open never keeps the process alive
+      this.producer = Thread.ofPlatform().name(name).daemon().unstarted(this::produce);
+   } // end Constructor
+
+   /**
+    * public function that starts shuffling shoes on the producer's thread
+    */
+   public void start() {
+      this.producer.start();
+   } // end start()
+
+   /**
+    * public function that makes a queue of shoes for one DealingMachine
+    * @param numberOfDecks - number of decks in the machine's shoe
+    * @param shoesAhead - most shoes kept shuffled ahead
+    * @param randomGenerator - generator the machine's shoes are shuffled with,
+    *        used by no other thread
+    * @return - a queue the producer starts filling at once
+    */
+   public ShoeQueue newQueue(int numberOfDecks, int shoesAhead, RandomGenerator randomGenerator) {
+      ShoeQueue queue = new ShoeQueue(this, numberOfDecks, shoesAhead, randomGenerator);
+      this.queues.add(queue);
+      this.wake();
+      return queue;
+   } // end newQueue()
+
+   /**
+    * public function that stops the producer
+    * @postcondition - the producer's thread has finished. Machines can keep
+    *                dealing, shuffling their own cards
+    */
+   @Override
+   public void close() {
+      this.running = false;
+      LockSupport.unpark(this.producer);
+      if (this.producer.isAlive()) {
+         try {
+            this.producer.join();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+      }
+   } // end close()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the number of reshuffles that swapped in a ready shoe
+    * @return - number of shoes taken ready from the queues
+    */
+   public long getShoesSwapped() {
+      return this.shoesSwapped.sum();
+   }
+
+   /**
+    * public getter for the number of reshuffles that found no shoe ready and
+    * shuffled the machine's cards on the table's own thread
+    * @return - number of shoes shuffled inline
+    */
+   public long getShoesShuffledInline() {
+      return this.shoesShuffledInline.sum();
+   }
+
+   /***************
+    **** Callbacks from the queues
+    ***************/
+   void shoeSwapped() {
+      this.shoesSwapped.increment();
+   }
+
+   void shoeShuffledInline() {
+      this.shoesShuffledInline.increment();
+   }
+
+   /**
+    * Function that wakes the producer if it is parked
+    */
+   void wake() {
+      if (this.sleeping) {
+         LockSupport.unpark(this.producer);
+      }
+   } // end wake()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function run by the producer's thread - tops up the queues until
+    * the producer is closed
+    */
+   private void produce() {
+      while (this.running) {
+         boolean shuffled = false;
+         // one shoe per queue per pass, so a busy table can't starve the others
+         for (ShoeQueue queue : this.queues) {
+            if (queue.isClosed()) {
+               this.queues.remove(queue);
+            } else if (queue.produce()) {
+               shuffled = true;
+            }
+         }
+
+         if (!shuffled) {
+            this.sleeping = true;
+            // look once more, a machine may have handed back a shoe before it saw
+            // the producer was going to sleep
+            if (this.anyQueueCanProduce()) {
+               // the machine is shuffling for itself, which never takes long
+               Thread.yield();
+            } else if (this.running) {
+               LockSupport.park(this);
+            }
+            this.sleeping = false;
+         }
+      }
+   } // end produce()
+
+   /**
+    * Private function to check if any open queue has a shoe to shuffle
+    */
+   private boolean anyQueueCanProduce() {
+      for (ShoeQueue queue : this.queues) {
+         if (!queue.isClosed() && queue.canProduce()) {
+            return true;
+         }
+      }
+      return false;
+   } // end anyQueueCanProduce()
+
+}// end of ShuffleAhead class
@@ -5,4 +5,12 @@
  * 
  */
 module blackjack {
+   requires java.management;
+   // the simulation job server is built on the JDK's HTTP server
+   requires jdk.httpserver;
+   // only needed by the vector hand evaluator, which checks it was loaded
+   requires static jdk.incubator.vector;
+
+   // the metrics MBean interface has to be visible to the JMX introspector
+   exports blackjack to java.management;
 }
\ No newline at end of file
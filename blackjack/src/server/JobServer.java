@@ -0,0 +1,401 @@
+/**
+ * server package
+ */
+package server;
+
+import blackjack.GameMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * class for a local HTTP server that runs simulation jobs for other tools on
+ * the same machine. It is built on the JDK's own HTTP server, so nothing
+ * outside the JDK is needed, and only listens on the loopback address.
+ * Requests and jobs each run on a virtual thread of their own, and the
+ * simulations themselves on the platform threads of their workers.
+ *
+ * The server has a number of CPU slots, and a job takes one slot for each of
+ * its worker threads while it runs - jobs that don't fit wait their turn, in
+ * the order they were submitted, and once the queue is full new ones are
+ * turned away. The API, all in JSON:
+ * - POST /jobs with a form encoded definition (see SimulationJob.parse())
+ *   queues a job and returns it, with its id
+ * - GET /jobs lists every job, GET /jobs/{id} returns one
+ * - GET /jobs/{id}/progress streams the job, one JSON object a line, every
+ *   time it changes until it ends
+ * - DELETE /jobs/{id} cancels a job
+ * @author Michael Baker
+ */
+public final class JobServer implements AutoCloseable {
+   public static final int DEFAULT_PORT = 21022;
+   public static final int DEFAULT_MAX_QUEUED_JOBS = 64;
+   private static final int MAX_JOBS_KEPT = 1024; // finished jobs beyond this are forgotten, oldest first
+   private static final int MAX_DEFINITION_BYTES = 4096;
+   private static final long PROGRESS_HEARTBEAT_MILLIS = 5000;
+   private static final String JOBS_PATH = "/jobs";
+
+   private final HttpServer httpServer;
+   private final ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor();
+   private final ExecutorService runners = Executors.newVirtualThreadPerTaskExecutor();
+   private final Semaphore cpuSlots;
+   private final int maxThreadsPerJob;
+   private final int maxQueuedJobs;
+   private final AtomicInteger jobsQueued = new AtomicInteger();
+   private final AtomicLong nextJobId = new AtomicLong(1);
+   private final Map<Long, SimulationJob> jobs = new ConcurrentSkipListMap<>();
+
+   /**
+    * Constructor for a server with a slot for every core, jobs of up to every
+    * core and the default queue
+    * @param port - port to listen on, or 0 for any free port
+    * @throws IOException - if the port cannot be bound
+    */
+   public JobServer(int port) throws IOException {
+      this(port, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(),
+            DEFAULT_MAX_QUEUED_JOBS);
+   } // end Constructor
+
+   /**
+    * Constructor for a server
+    * @param port - port to listen on, or 0 for any free port
+    * @param cpuSlots - worker threads that may run at once, over every job
+    * @param maxThreadsPerJob - most worker threads a single job may ask for
+    * @param maxQueuedJobs - most jobs waiting for slots before new ones are
+    *        turned away
+    * @throws IOException - if the port cannot be bound
+    * @precondition - expects positive limits, and no more threads per job than
+    *               there are slots
+    */
+   public JobServer(int port, int cpuSlots, int maxThreadsPerJob, int maxQueuedJobs) throws IOException {
+      if (cpuSlots <= 0 || maxThreadsPerJob <= 0 || maxThreadsPerJob > cpuSlots || maxQueuedJobs <= 0) {
+         throw new RuntimeException("Slots, threads per job and the queue must be positive, and a job must fit");
+      }
+      // fair, so a job waiting for several slots isn't passed over by small ones
+      this.cpuSlots = new Semaphore(cpuSlots, true);
+      this.maxThreadsPerJob = maxThreadsPerJob;
+      this.maxQueuedJobs = maxQueuedJobs;
+      this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+      this.httpServer.createContext(JOBS_PATH, this::handle);
+      this.httpServer.setExecutor(this.requests);
+   } // end Constructor
+
+   /**
+    * Main function that runs a server until the process is stopped
+    * @param args - optional port to listen on, CPU slots and most threads per
+    *        job, in that order
+    */
+   public static void main(String[] args) throws IOException {
+      int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+      int cpuSlots = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+      int maxThreadsPerJob = (args.length > 2) ? Integer.parseInt(args[2]) : cpuSlots;
+      // register the metrics MBean before the first job needs it
+      GameMetrics.getPlatformInstance();
+      JobServer server = new JobServer(port, cpuSlots, maxThreadsPerJob, DEFAULT_MAX_QUEUED_JOBS);
+      server.start();
+      System.out.println("Simulation jobs taken on http://" + server.httpServer.getAddress().getHostString() + ":"
+            + server.getPort() + JOBS_PATH);
+   } // end of main
+
+   /**
+    * public function that starts serving requests
+    */
+   public void start() {
+      this.httpServer.start();
+   } // end start()
+
+   /**
+    * public function that stops the server and cancels every job
+    * @postcondition - every job has ended
+    */
+   @Override
+   public void close() {
+      this.httpServer.stop(0);
+      for (SimulationJob job : this.jobs.values()) {
+         job.cancel();
+      }
+      // queued jobs are waiting on a slot, interrupting them ends the wait
+      this.runners.shutdownNow();
+      this.requests.shutdownNow();
+      try {
+         this.runners.awaitTermination(60, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   } // end close()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the port the server is listening on
+    * @return - the local port
+    */
+   public int getPort() {
+      return this.httpServer.getAddress().getPort();
+   }
+
+   /**
+    * public getter for the number of jobs waiting for CPU slots
+    * @return - number of queued jobs
+    */
+   public int getJobsQueued() {
+      return this.jobsQueued.get();
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that serves every request under /jobs. A request that
+    * fails in a way the API doesn't expect is answered with a 500, rather than
+    * the connection being dropped
+    */
+   private void handle(HttpExchange exchange) throws IOException {
+      try (exchange) {
+         try {
+            this.route(exchange);
+         } catch (RuntimeException e) {
+            System.err.println("Request " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + " failed: "
+                  + e);
+            // only a reply that hasn't started can still be turned into an error
+            if (exchange.getResponseCode() == -1) {
+               this.reply(exchange, 500, error("Internal server error"));
+            }
+         }
+      }
+   } // end handle()
+
+   /**
+    * Private function that picks what to do with a request from its method and
+    * path
+    */
+   private void route(HttpExchange exchange) throws IOException {
+      String method = exchange.getRequestMethod();
+      // "", "/12" or "/12/progress", with any one trailing slash dropped
+      String rest = exchange.getRequestURI().getPath().substring(JOBS_PATH.length());
+      if (rest.endsWith("/")) {
+         rest = rest.substring(0, rest.length() - 1);
+      }
+      String[] path = rest.split("/", -1);
+      if (path.length == 0 || !path[0].isEmpty()) {
+         // a path like /jobsfoo, which only shares the prefix
+         this.reply(exchange, 404, error("No such path"));
+         return;
+      } else if (path.length == 1) {
+         if (method.equals("POST")) {
+            this.submit(exchange);
+         } else if (method.equals("GET")) {
+            this.list(exchange);
+         } else {
+            this.reply(exchange, 405, error("Use GET or POST on " + JOBS_PATH));
+         }
+         return;
+      }
+
+      SimulationJob job = null;
+      try {
+         job = this.jobs.get(Long.parseLong(path[1]));
+      } catch (NumberFormatException e) {
+         // not a job id
+      }
+      if (job == null || path.length > 3 || (path.length == 3 && !path[2].equals("progress"))) {
+         this.reply(exchange, 404, error("No such job"));
+      } else if (path.length == 3) {
+         if (method.equals("GET")) {
+            this.streamProgress(exchange, job);
+         } else {
+            this.reply(exchange, 405, error("Use GET on a job's progress"));
+         }
+      } else if (method.equals("GET")) {
+         this.reply(exchange, 200, job.toJson());
+      } else if (method.equals("DELETE")) {
+         job.cancel();
+         this.reply(exchange, 200, job.toJson());
+      } else {
+         this.reply(exchange, 405, error("Use GET or DELETE on a job"));
+      }
+   } // end route()
+
+   /**
+    * Private function that queues a new job, unless the queue is full
+    */
+   private void submit(HttpExchange exchange) throws IOException {
+      SimulationJob job;
+      try {
+         job = SimulationJob.parse(this.nextJobId.getAndIncrement(), readDefinition(exchange), this.maxThreadsPerJob);
+      } catch (RuntimeException e) {
+         this.reply(exchange, 400, error(String.valueOf(e.getMessage())));
+         return;
+      }
+      if (this.jobsQueued.incrementAndGet() > this.maxQueuedJobs) {
+         this.jobsQueued.decrementAndGet();
+         this.reply(exchange, 503, error("The job queue is full, try again later"));
+         return;
+      }
+
+      this.jobs.put(job.getId(), job);
+      this.forgetOldJobs();
+      this.runners.execute(() -> this.runJob(job));
+      exchange.getResponseHeaders().set("Location", JOBS_PATH + "/" + job.getId());
+      this.reply(exchange, 202, job.toJson());
+   } // end submit()
+
+   /**
+    * Private function run by a job's own virtual thread - waits for the job's
+    * slots, then runs it
+    */
+   private void runJob(SimulationJob job) {
+      try {
+         // cancelling the job interrupts the wait, so it leaves the queue at once
+         job.setRunner(Thread.currentThread());
+         if (job.isFinished()) {
+            throw new InterruptedException();
+         }
+         this.cpuSlots.acquire(job.getThreads());
+      } catch (InterruptedException e) {
+         // the job was cancelled or the server is closing
+         this.jobsQueued.decrementAndGet();
+         job.cancel();
+         return;
+      }
+      this.jobsQueued.decrementAndGet();
+      try {
+         job.run();
+      } finally {
+         this.cpuSlots.release(job.getThreads());
+      }
+   } // end runJob()
+
+   /**
+    * Private function that lists every job the server remembers
+    */
+   private void list(HttpExchange exchange) throws IOException {
+      StringBuilder json = new StringBuilder("[");
+      for (SimulationJob job : this.jobs.values()) {
+         if (json.length() > 1) {
+            json.append(',');
+         }
+         json.append(job.toJson());
+      }
+      this.reply(exchange, 200, json.append(']').toString());
+   } // end list()
+
+   /**
+    * Private function that sends a job's snapshot every time it changes, as a
+    * chunked response of one JSON object a line, until the job ends or the
+    * client goes away. A quiet job is sent again every few seconds, so a client
+    * that has gone is noticed
+    */
+   private void streamProgress(HttpExchange exchange, SimulationJob job) throws IOException {
+      exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+      // a length of 0 makes the response chunked
+      exchange.sendResponseHeaders(200, 0);
+      OutputStream out = exchange.getResponseBody();
+      long version = -1;
+      try {
+         while (true) {
+            version = job.awaitChange(version, PROGRESS_HEARTBEAT_MILLIS);
+            // read before the snapshot, so the last line sent is the final one
+            boolean finished = job.isFinished();
+            out.write((job.toJson() + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            if (finished) {
+               return;
+            }
+         }
+      } catch (InterruptedException e) {
+         // the server is closing
+         Thread.currentThread().interrupt();
+      }
+   } // end streamProgress()
+
+   /**
+    * Private function that forgets the oldest finished jobs once too many are
+    * remembered
+    */
+   private void forgetOldJobs() {
+      if (this.jobs.size() <= MAX_JOBS_KEPT) {
+         return;
+      }
+      List<Long> finished = new ArrayList<>();
+      for (SimulationJob job : this.jobs.values()) {
+         if (job.isFinished()) {
+            finished.add(job.getId());
+         }
+      }
+      // the map is ordered by id, so the oldest come first
+      for (int i = 0; i < finished.size() && this.jobs.size() > MAX_JOBS_KEPT; i++) {
+         this.jobs.remove(finished.get(i));
+      }
+   } // end forgetOldJobs()
+
+   /**
+    * Private function that sends a whole JSON reply
+    */
+   private void reply(HttpExchange exchange, int status, String json) throws IOException {
+      byte[] body = json.getBytes(StandardCharsets.UTF_8);
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(status, body.length);
+      exchange.getResponseBody().write(body);
+   } // end reply()
+
+   /**
+    * Private function for the body of an error reply
+    */
+   private static String error(String message) {
+      return "{\"error\":\"" + SimulationJob.escape(message) + "\"}";
+   } // end error()
+
+   /**
+    * Private function that reads a job definition from the query string and
+    * the form encoded body of a request
+    */
+   private static Map<String, String> readDefinition(HttpExchange exchange) throws IOException {
+      Map<String, String> params = new LinkedHashMap<>();
+      readForm(exchange.getRequestURI().getRawQuery(), params);
+      try (InputStream in = exchange.getRequestBody()) {
+         byte[] body = in.readNBytes(MAX_DEFINITION_BYTES + 1);
+         if (body.length > MAX_DEFINITION_BYTES) {
+            throw new RuntimeException("A job definition is at most " + MAX_DEFINITION_BYTES + " bytes");
+         }
+         readForm(new String(body, StandardCharsets.UTF_8).trim(), params);
+      }
+      return params;
+   } // end readDefinition()
+
+   /**
+    * Private function that reads name=value pairs separated by &
+    */
+   private static void readForm(String form, Map<String, String> params) {
+      if (form == null || form.isEmpty()) {
+         return;
+      }
+      for (String pair : form.split("&")) {
+         int equals = pair.indexOf('=');
+         if (equals <= 0) {
+            throw new RuntimeException("Expected name=value, not " + pair);
+         }
+         params.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+               URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+      }
+   } // end readForm()
+
+}// end of JobServer class
@@ -0,0 +1,108 @@
+/**
+ * server package
+ */
+package server;
+
+import deck.Card;
+import deck.Hand;
+
+/**
+ * class that holds the words and card codes of the table server's line
+ * protocol. Every message is one line of ASCII text, made of a word and its
+ * arguments separated by single spaces.
+ *
+ * Server to client:
+ *   WELCOME table money   - sent once when the client is seated
+ *   SHUFFLE               - the cut card came out and the shoe was reshuffled
+ *   BET? money            - asks for the next bet
+ *   DEAL c1 c2 UP c       - the player's first two cards and the dealer's upcard
+ *   CARD c total          - a card the player drew and the player's new total
+ *   MOVE? total           - asks the player to hit or stand
+ *   DEALER c... total     - the dealer's whole hand once the round is over
+ *   RESULT WIN|LOSE|TIE money - the outcome and the player's money
+ *   ERR reason            - the last line was not understood, the question is
+ *                           asked again
+ *   BYE money             - the table is closed
+ *
+ * Client to server:
+ *   BET amount, HIT, STAND and QUIT
+ *
+ * Cards are written as their value followed by the first letter of their suit,
+ * such as 10H, QS or AD
+ * @author Michael Baker
+ */
+final class Protocol {
+   static final String WELCOME = "WELCOME";
+   static final String SHUFFLE = "SHUFFLE";
+   static final String BET_PROMPT = "BET?";
+   static final String DEAL = "DEAL";
+   static final String UPCARD = "UP";
+   static final String CARD = "CARD";
+   static final String MOVE_PROMPT = "MOVE?";
+   static final String DEALER = "DEALER";
+   static final String RESULT = "RESULT";
+   static final String ERROR = "ERR";
+   static final String BYE = "BYE";
+
+   static final String BET = "BET";
+   static final String HIT = "HIT";
+   static final String STAND = "STAND";
+   static final String QUIT = "QUIT";
+
+   static final String WIN = "WIN";
+   static final String LOSE = "LOSE";
+   static final String TIE = "TIE";
+
+   // first letter of each suit, in the order of the card ordinals
+   private static final String SUIT_LETTERS = "SHCD";
+
+   /**
+    * private constructor - the protocol is only used through its static members
+    */
+   private Protocol() {
+   }
+
+   /**
+    * Static function that writes a card's code
+    * @param card - the card
+    * @param out - buffer the code is appended to
+    */
+   static void appendCard(Card card, StringBuilder out) {
+      out.append(card.getValue().toUpperCase()).append(SUIT_LETTERS.charAt(card.getOrdinal() / Card.NUMBER_OF_RANKS));
+   } // end appendCard()
+
+   /**
+    * Static function that writes the codes of some of a hand's cards, each
+    * preceded by a space
+    * @param hand - the hand
+    * @param from - position of the first card written
+    * @param to - position after the last card written
+    * @param out - buffer the codes are appended to
+    */
+   static void appendCards(Hand hand, int from, int to, StringBuilder out) {
+      for (int i = from; i < to; i++) {
+         out.append(' ');
+         appendCard(hand.getCard(i), out);
+      }
+   } // end appendCards()
+
+   /**
+    * Static function that reads the points of a card code, counting an ace as 1
+    * @param code - the card's code
+    * @return - points the card adds to a hand
+    */
+   static int pointsOf(String code) {
+      String value = code.substring(0, code.length() - 1);
+      switch (value) {
+      case "A":
+         return 1;
+      case "J":
+      case "Q":
+      case "K":
+         return 10;
+      default:
+         return Integer.parseInt(value);
+      }
+   } // end pointsOf()
+
+}// end of Protocol class
@@ -0,0 +1,184 @@
+/**
+ * server package
+ */
+package server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * class that plays against a TableServer over loopback, one connection per
+ * scripted player. Every player bets the same amount, hits below 17 and stands
+ * otherwise, and checks every line the server sends against the protocol - the
+ * totals it is told must match the cards it was dealt. Without a port a server
+ * is started in the same process, so a whole run needs nothing else
+ * @author Michael Baker
+ */
+public final class ScriptedClient {
+   private static final int FLAT_BET = 1;
+   private static final int STAND_ON = 17;
+
+   private final String host;
+   private final int port;
+
+   /**
+    * Constructor for a client of the server on the given loopback port
+    * @param port - port the server listens on
+    */
+   public ScriptedClient(int port) {
+      this.host = InetAddress.getLoopbackAddress().getHostAddress();
+      this.port = port;
+   } // end Constructor
+
+   /**
+    * Main function for a scripted load run
+    * @param args - optional number of clients, rounds each client plays and
+    *        port of a running server, in that order
+    * @postcondition - prints a report, and exits with status 1 if any client saw
+    *                a protocol error
+    */
+   public static void main(String[] args) throws IOException {
+      int clients = (args.length > 0) ? Integer.parseInt(args[0]) : 1000;
+      int rounds = (args.length > 1) ? Integer.parseInt(args[1]) : 10;
+
+      TableServer server = null;
+      int port;
+      if (args.length > 2) {
+         port = Integer.parseInt(args[2]);
+      } else {
+         server = new TableServer(0);
+         server.start();
+         port = server.getPort();
+      }
+
+      long startTime = System.nanoTime();
+      long[] result = new ScriptedClient(port).playAll(clients, rounds);
+      double seconds = (System.nanoTime() - startTime) / 1e9;
+      if (server != null) {
+         server.close();
+      }
+
+      System.out.println("Clients: " + clients + "\tRounds played: " + result[0] + "\tFailed clients: " + result[1]);
+      System.out.printf("Elapsed: %.3f s\tRounds/sec: %.0f%n", seconds, result[0] / seconds);
+      if (result[1] > 0) {
+         System.exit(1);
+      }
+   } // end of main
+
+   /**
+    * public function that connects the given number of scripted players at once,
+    * each on its own virtual thread, and waits for them all to finish
+    * @param clients - number of players to connect
+    * @param rounds - number of rounds each player plays before quitting
+    * @return - array holding the total rounds played and the number of players
+    *         that failed
+    */
+   public long[] playAll(int clients, int rounds) {
+      long[] result = new long[2];
+      try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+         List<Future<Integer>> games = new ArrayList<>(clients);
+         for (int i = 0; i < clients; i++) {
+            games.add(players.submit(() -> this.play(rounds)));
+         }
+         for (var g : games) {
+            try {
+               result[0] += g.get();
+            } catch (ExecutionException e) {
+               result[1]++;
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               throw new RuntimeException("Scripted run was interrupted", e);
+            }
+         }
+      }
+      return result;
+   } // end playAll()
+
+   /**
+    * public function that plays one scripted player's session
+    * @param rounds - number of rounds to play before quitting
+    * @return - number of rounds played, fewer if the player ran out of money
+    * @throws IOException - if the connection fails or the server breaks the
+    *         protocol
+    */
+   public int play(int rounds) throws IOException {
+      try (Socket socket = new Socket(this.host, this.port)) {
+         socket.setTcpNoDelay(true);
+         BufferedReader in = new BufferedReader(
+               new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+         Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII));
+
+         int played = 0;
+         int hardTotal = 0;
+         boolean hasAce = false;
+         while (true) {
+            String line = in.readLine();
+            if (line == null) {
+               throw new IOException("Server hung up without saying BYE");
+            }
+            String[] words = line.split(" ");
+            switch (words[0]) {
+            case Protocol.WELCOME:
+            case Protocol.SHUFFLE:
+            case Protocol.DEALER:
+               break;
+            case Protocol.BET_PROMPT:
+               out.write((played < rounds) ? Protocol.BET + " " + FLAT_BET + "\n" : Protocol.QUIT + "\n");
+               out.flush();
+               hardTotal = 0;
+               hasAce = false;
+               break;
+            case Protocol.DEAL:
+               for (int i = 1; i <= 2; i++) {
+                  hardTotal += Protocol.pointsOf(words[i]);
+                  hasAce |= words[i].startsWith("A");
+               }
+               break;
+            case Protocol.CARD:
+               hardTotal += Protocol.pointsOf(words[1]);
+               hasAce |= words[1].startsWith("A");
+               expectTotal(line, hardTotal, hasAce, Integer.parseInt(words[2]));
+               break;
+            case Protocol.MOVE_PROMPT:
+               int total = expectTotal(line, hardTotal, hasAce, Integer.parseInt(words[1]));
+               out.write((total < STAND_ON) ? Protocol.HIT + "\n" : Protocol.STAND + "\n");
+               out.flush();
+               break;
+            case Protocol.RESULT:
+               played++;
+               break;
+            case Protocol.BYE:
+               return played;
+            default:
+               throw new IOException("Unexpected line from the server: " + line);
+            }
+         }
+      }
+   } // end play()
+
+   /**
+    * Private function that checks a total the server sent against the cards
+    * @return - the total
+    */
+   private static int expectTotal(String line, int hardTotal, boolean hasAce, int sent) throws IOException {
+      int total = (hasAce && hardTotal + 10 <= 21) ? hardTotal + 10 : hardTotal;
+      if (total != sent) {
+         throw new IOException("Expected a total of " + total + ": " + line);
+      }
+      return total;
+   } // end expectTotal()
+
+}// end of ScriptedClient class
@@ -0,0 +1,329 @@
+/**
+ * server package
+ */
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * class that checks a JobServer over loopback the way another tool would use
+ * it - submitting jobs, streaming their progress, cancelling them, and sending
+ * the requests the API must turn away. Without a port a server with one CPU
+ * slot and a queue of two is started in the same process, so a whole run
+ * needs nothing else and the full queue can be reached on purpose. A server
+ * given by port must be idle and have those same limits
+ * @author Michael Baker
+ */
+public final class ScriptedJobClient {
+   private static final int CPU_SLOTS = 1;
+   private static final int MAX_QUEUED_JOBS = 2;
+   private static final long WAIT_MILLIS = 60_000;
+   private static final Pattern ID = Pattern.compile("\"id\":(\\d+)");
+   private static final Pattern STATE = Pattern.compile("\"state\":\"(\\w+)\"");
+   private static final Pattern ROUNDS = Pattern.compile("\"rounds\":(\\d+)");
+
+   private final String base;
+   private final List<String> failures = new ArrayList<>();
+   private int checks = 0;
+
+   /**
+    * Constructor for a client of the server on the given loopback port
+    * @param port - port the server listens on
+    */
+   public ScriptedJobClient(int port) {
+      this.base = "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + port;
+   } // end Constructor
+
+   /**
+    * Main function for a scripted check of the job API
+    * @param args - optional port of a running server
+    * @postcondition - prints every failed check and a report, and exits with
+    *                status 1 if any check failed
+    */
+   public static void main(String[] args) throws IOException, InterruptedException {
+      JobServer server = null;
+      int port;
+      if (args.length > 0) {
+         port = Integer.parseInt(args[0]);
+      } else {
+         server = new JobServer(0, CPU_SLOTS, CPU_SLOTS, MAX_QUEUED_JOBS);
+         server.start();
+         port = server.getPort();
+      }
+
+      ScriptedJobClient client = new ScriptedJobClient(port);
+      long startTime = System.nanoTime();
+      try {
+         client.checkAll();
+      } finally {
+         if (server != null) {
+            server.close();
+         }
+      }
+      double seconds = (System.nanoTime() - startTime) / 1e9;
+
+      for (String failure : client.failures) {
+         System.out.println("FAILED: " + failure);
+      }
+      System.out.printf("Checks: %d\tFailed: %d\tElapsed: %.3f s%n", client.checks, client.failures.size(), seconds);
+      if (!client.failures.isEmpty()) {
+         System.exit(1);
+      }
+   } // end of main
+
+   /**
+    * public function that runs every check in turn
+    * @return - number of checks that failed
+    * @throws IOException - if the server can't be reached
+    * @throws InterruptedException - if a wait for a job is interrupted
+    */
+   public int checkAll() throws IOException, InterruptedException {
+      this.checkPaths();
+      this.checkBadDefinitions();
+      this.checkProgressStream();
+      this.checkQueueAndCancel();
+      return this.failures.size();
+   } // end checkAll()
+
+   /***************
+    **** The checks
+    ***************/
+   /**
+    * Function that checks every path and method the API answers, and the ones
+    * it turns away
+    */
+   void checkPaths() throws IOException {
+      this.expectStatus("GET /jobs", this.send("GET", "/jobs", null), 200);
+      this.expectStatus("GET /jobs/", this.send("GET", "/jobs/", null), 200);
+      this.expectStatus("GET /jobsfoo", this.send("GET", "/jobsfoo", null), 404);
+      this.expectStatus("GET /jobs/999999", this.send("GET", "/jobs/999999", null), 404);
+      this.expectStatus("GET /jobs/abc", this.send("GET", "/jobs/abc", null), 404);
+      this.expectStatus("GET /jobs//", this.send("GET", "/jobs//", null), 404);
+      this.expectStatus("PUT /jobs", this.send("PUT", "/jobs", ""), 405);
+      this.expectStatus("DELETE /jobs/", this.send("DELETE", "/jobs/", null), 405);
+   } // end checkPaths()
+
+   /**
+    * Function that checks a definition the server can't run is turned away
+    * with a 400, and nothing is queued
+    */
+   void checkBadDefinitions() throws IOException {
+      this.expectStatus("no rounds or target", this.send("POST", "/jobs", "seed=1"), 400);
+      this.expectStatus("rounds not a number", this.send("POST", "/jobs", "rounds=many"), 400);
+      this.expectStatus("unknown setting", this.send("POST", "/jobs", "rounds=10&colour=red"), 400);
+      this.expectStatus("bad soft 17 rule", this.send("POST", "/jobs", "rounds=10&soft17=S18"), 400);
+      this.expectStatus("not name=value", this.send("POST", "/jobs", "rounds"), 400);
+      this.expectStatus("too many threads", this.send("POST", "/jobs", "rounds=10&threads=" + (CPU_SLOTS + 1)),
+            400);
+   } // end checkBadDefinitions()
+
+   /**
+    * Function that submits a short job and follows its progress stream to the
+    * end - every line is a snapshot of the job, the rounds never go down, and
+    * the last line is the finished job
+    */
+   void checkProgressStream() throws IOException {
+      Reply submitted = this.send("POST", "/jobs", "rounds=1000000&seed=1");
+      this.expectStatus("submit a short job", submitted, 202);
+      long id = number(ID, submitted.body);
+      this.expect("the new job's Location", submitted.location != null && submitted.location.equals("/jobs/" + id),
+            "was " + submitted.location);
+
+      List<String> lines = this.stream("/jobs/" + id + "/progress");
+      this.expect("progress lines", !lines.isEmpty(), "none were sent");
+      long lastRounds = -1;
+      for (String line : lines) {
+         long rounds = number(ROUNDS, line);
+         this.expect("rounds in progress", rounds >= lastRounds, rounds + " after " + lastRounds);
+         lastRounds = rounds;
+      }
+      if (!lines.isEmpty()) {
+         String last = lines.get(lines.size() - 1);
+         this.expect("the last progress line", state(last).equals(SimulationJob.DONE), last);
+         this.expect("rounds of the finished job", number(ROUNDS, last) == 1_000_000, last);
+      }
+      this.expectStatus("POST on a job", this.send("POST", "/jobs/" + id, ""), 405);
+      this.expectStatus("DELETE on a job's progress", this.send("DELETE", "/jobs/" + id + "/progress", null), 405);
+      this.expectStatus("GET /jobs/{id}/", this.send("GET", "/jobs/" + id + "/", null), 200);
+      this.expectStatus("GET /jobs/{id}/other", this.send("GET", "/jobs/" + id + "/other", null), 404);
+   } // end checkProgressStream()
+
+   /**
+    * Function that fills the server - one job running on the only slot and a
+    * full queue behind it - checks the next job is turned away, then cancels
+    * a queued job and the running one
+    */
+   void checkQueueAndCancel() throws IOException, InterruptedException {
+      // a job that won't finish on its own in any sensible time
+      String endless = "rounds=1000000000000&seed=2";
+      Reply running = this.send("POST", "/jobs", endless);
+      this.expectStatus("submit the running job", running, 202);
+      long runningId = number(ID, running.body);
+      this.expect("the running job starts", this.awaitState(runningId, SimulationJob.RUNNING), "it never ran");
+
+      long[] queuedIds = new long[MAX_QUEUED_JOBS];
+      for (int i = 0; i < MAX_QUEUED_JOBS; i++) {
+         Reply queued = this.send("POST", "/jobs", endless);
+         this.expectStatus("submit queued job " + (i + 1), queued, 202);
+         queuedIds[i] = number(ID, queued.body);
+         this.expect("queued job " + (i + 1), state(queued.body).equals(SimulationJob.QUEUED), queued.body);
+      }
+      this.expectStatus("submit to a full queue", this.send("POST", "/jobs", endless), 503);
+
+      // a queued job ends as soon as it is cancelled
+      Reply cancelled = this.send("DELETE", "/jobs/" + queuedIds[0], null);
+      this.expectStatus("cancel a queued job", cancelled, 200);
+      this.expect("the cancelled queued job", state(cancelled.body).equals(SimulationJob.CANCELLED), cancelled.body);
+
+      // a running job ends once its current batch is played, which its stream shows
+      this.expectStatus("cancel the running job", this.send("DELETE", "/jobs/" + runningId, null), 200);
+      List<String> lines = this.stream("/jobs/" + runningId + "/progress");
+      String last = lines.isEmpty() ? "" : lines.get(lines.size() - 1);
+      this.expect("the cancelled running job", state(last).equals(SimulationJob.CANCELLED), last);
+
+      // the last queued job gets the slot, and is cancelled while it runs
+      long lastId = queuedIds[MAX_QUEUED_JOBS - 1];
+      this.expect("the next queued job starts", this.awaitState(lastId, SimulationJob.RUNNING), "it never ran");
+      this.expectStatus("cancel the next job", this.send("DELETE", "/jobs/" + lastId, null), 200);
+      this.expect("the next job ends", this.awaitState(lastId, SimulationJob.CANCELLED), "it never ended");
+      this.expectStatus("cancel a finished job", this.send("DELETE", "/jobs/" + lastId, null), 200);
+   } // end checkQueueAndCancel()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Reply to one request
+    */
+   private static final class Reply {
+      private final int status;
+      private final String body;
+      private final String location;
+
+      private Reply(int status, String body, String location) {
+         this.status = status;
+         this.body = body;
+         this.location = location;
+      }
+   }// end of Reply class
+
+   /**
+    * Private function that sends a request and reads the whole reply. A
+    * connection the server drops without replying is a reply with a status of
+    * -1, so it fails the check instead of ending the run
+    * @param form - form encoded body, or null to send none
+    */
+   private Reply send(String method, String path, String form) {
+      try {
+         return this.exchange(method, path, form);
+      } catch (IOException e) {
+         return new Reply(-1, e.toString(), null);
+      }
+   } // end send()
+
+   /**
+    * Private function that makes one request for send()
+    */
+   private Reply exchange(String method, String path, String form) throws IOException {
+      HttpURLConnection connection = this.open(method, path);
+      if (form != null) {
+         connection.setDoOutput(true);
+         connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+         try (OutputStream out = connection.getOutputStream()) {
+            out.write(form.getBytes(StandardCharsets.UTF_8));
+         }
+      }
+      int status = connection.getResponseCode();
+      InputStream in = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+      String body = "";
+      if (in != null) {
+         try (in) {
+            body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+         }
+      }
+      Reply reply = new Reply(status, body, connection.getHeaderField("Location"));
+      connection.disconnect();
+      return reply;
+   } // end exchange()
+
+   /**
+    * Private function that reads a progress stream until the server ends it
+    * @return - every line sent
+    */
+   private List<String> stream(String path) throws IOException {
+      HttpURLConnection connection = this.open("GET", path);
+      List<String> lines = new ArrayList<>();
+      int status = connection.getResponseCode();
+      this.expectStatus("GET " + path, new Reply(status, "", null), 200);
+      if (status == 200) {
+         try (BufferedReader in = new BufferedReader(
+               new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+               lines.add(line);
+            }
+         }
+      }
+      connection.disconnect();
+      return lines;
+   } // end stream()
+
+   /**
+    * Private function that opens a connection for a request
+    */
+   private HttpURLConnection open(String method, String path) throws IOException {
+      HttpURLConnection connection = (HttpURLConnection) URI.create(this.base + path).toURL().openConnection();
+      connection.setRequestMethod(method);
+      connection.setConnectTimeout((int) WAIT_MILLIS);
+      connection.setReadTimeout((int) WAIT_MILLIS);
+      return connection;
+   } // end open()
+
+   /**
+    * Private function that polls a job until it reaches a state
+    * @return - false if it didn't within the wait
+    */
+   private boolean awaitState(long id, String state) throws IOException, InterruptedException {
+      long deadline = System.currentTimeMillis() + WAIT_MILLIS;
+      while (System.currentTimeMillis() < deadline) {
+         if (state(this.send("GET", "/jobs/" + id, null).body).equals(state)) {
+            return true;
+         }
+         Thread.sleep(10);
+      }
+      return false;
+   } // end awaitState()
+
+   private void expectStatus(String check, Reply reply, int status) {
+      this.expect(check, reply.status == status, "expected " + status + ", got " + reply.status + " " + reply.body);
+   }
+
+   private void expect(String check, boolean passed, String detail) {
+      this.checks++;
+      if (!passed) {
+         this.failures.add(check + ": " + detail);
+      }
+   }
+
+   private static String state(String json) {
+      Matcher m = STATE.matcher(json);
+      return m.find() ? m.group(1) : "";
+   }
+
+   private static long number(Pattern field, String json) {
+      Matcher m = field.matcher(json);
+      return m.find() ? Long.parseLong(m.group(1)) : -1;
+   }
+
+}// end of ScriptedJobClient class
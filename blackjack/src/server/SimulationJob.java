@@ -0,0 +1,337 @@
+/**
+ * server package
+ */
+package server;
+
+import blackjack.ConvergentSimulator;
+import blackjack.HeadlessSimulator;
+import blackjack.RoundStatistics;
+import blackjack.TableRules;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * class for one simulation submitted to a JobServer. A job plays rounds under
+ * its own rules until it has played its rounds or reached its precision, and
+ * keeps a snapshot of how far it has got that any number of threads can read
+ * or wait on while it runs. A job is queued until the server has CPU to run it
+ * on, then runs, then ends done, cancelled or failed
+ * @author Michael Baker
+ */
+final class SimulationJob {
+   // states of a job
+   static final String QUEUED = "QUEUED";
+   static final String RUNNING = "RUNNING";
+   static final String DONE = "DONE";
+   static final String CANCELLED = "CANCELLED";
+   static final String FAILED = "FAILED";
+
+   private final long id;
+   private final TableRules rules;
+   private final String strategyName;
+   private final int threads;
+   private final double target; // 0 when the job plays a fixed number of rounds
+   private final long seed;
+   private final ConvergentSimulator simulator;
+   private Thread runner = null; // thread waiting to run the job, guarded by this
+
+   // the job's snapshot, guarded by this
+   private String state = QUEUED;
+   private long version = 0; // moved on by every change to the snapshot
+   private long rounds = 0;
+   private double houseEdge = 0.0;
+   private double halfWidth = 0.0;
+   private int batches = 0;
+   private long elapsedNanos = 0;
+   private String stopReason = null;
+   private String error = null;
+
+   /**
+    * Constructor for a job
+    * @param id - the job's number
+    * @param rules - the rules the job's tables play by
+    * @param strategyName - "basic" or "dealer"
+    * @param threads - number of workers the job runs on
+    * @param rounds - rounds to play, or the most to play when there is a target
+    * @param target - half width of the house edge's 95% interval to stop at, or 0
+    *        to play every round
+    * @param maxNanos - most time the job may run for
+    * @param seed - seed the job's shoes are shuffled from
+    */
+   SimulationJob(long id, TableRules rules, String strategyName, int threads, long rounds, double target,
+         long maxNanos, long seed) {
+      this.id = id;
+      this.rules = rules;
+      this.strategyName = strategyName;
+      this.threads = threads;
+      this.target = target;
+      this.seed = seed;
+      // with no target the smallest interval there is is never reached, so every
+      // round is played
+      this.simulator = new ConvergentSimulator(rules, HeadlessSimulator.strategyFor(strategyName), threads,
+            (target > 0.0) ? target : Double.MIN_VALUE, rounds, maxNanos,
+            ConvergentSimulator.DEFAULT_FIRST_BATCH_ROUNDS);
+      this.simulator.setBatchListener(this::batchPlayed);
+   } // end Constructor
+
+   /**
+    * Static function that reads a job definition
+    * @param id - number to give the job
+    * @param params - the definition: "rounds" and/or "target" (a fraction, or a
+    *        percentage ending in %), and optionally "maxSeconds", "decks",
+    *        "penetration", "soft17" (S17 or H17), "blackjackPays" (3:2),
+    *        "strategy", "threads" and "seed"
+    * @param maxThreads - most workers a single job may run on
+    * @return - the job, queued
+    * @throws RuntimeException - describing the first thing wrong with the
+    *         definition
+    */
+   static SimulationJob parse(long id, Map<String, String> params, int maxThreads) {
+      long rounds = 0;
+      double target = 0.0;
+      double maxSeconds = 3600;
+      int numberOfDecks = TableRules.DEFAULT_NUMBER_OF_DECKS;
+      double penetration = TableRules.DEFAULT_PENETRATION;
+      boolean dealerHitsSoft17 = false;
+      int[] blackjackPayout = { 3, 2 };
+      String strategyName = "basic";
+      int threads = 1;
+      long seed = System.nanoTime();
+      for (var param : params.entrySet()) {
+         String value = param.getValue();
+         switch (param.getKey()) {
+         case "rounds":
+            rounds = Long.parseLong(value);
+            break;
+         case "target":
+            target = value.endsWith("%") ? Double.parseDouble(value.substring(0, value.length() - 1)) / 100
+                  : Double.parseDouble(value);
+            break;
+         case "maxSeconds":
+            maxSeconds = Double.parseDouble(value);
+            break;
+         case "decks":
+            numberOfDecks = Integer.parseInt(value);
+            break;
+         case "penetration":
+            penetration = Double.parseDouble(value);
+            break;
+         case "soft17":
+            if (!value.equalsIgnoreCase("S17") && !value.equalsIgnoreCase("H17")) {
+               throw new RuntimeException("soft17 must be S17 or H17, not " + value);
+            }
+            dealerHitsSoft17 = value.equalsIgnoreCase("H17");
+            break;
+         case "blackjackPays":
+            blackjackPayout = TableRules.parsePayout(value);
+            break;
+         case "strategy":
+            strategyName = value;
+            break;
+         case "threads":
+            threads = Integer.parseInt(value);
+            break;
+         case "seed":
+            seed = Long.parseLong(value);
+            break;
+         default:
+            throw new RuntimeException("Unknown job setting " + param.getKey());
+         }
+      }
+
+      if (rounds <= 0 && !(target > 0.0)) {
+         throw new RuntimeException("A job needs a positive number of rounds, a positive target, or both");
+      }
+      if (threads <= 0 || threads > maxThreads) {
+         throw new RuntimeException("A job runs on 1 to " + maxThreads + " threads, not " + threads);
+      }
+      if (!(maxSeconds > 0.0)) {
+         throw new RuntimeException("maxSeconds must be positive");
+      }
+      TableRules rules = new TableRules(dealerHitsSoft17, blackjackPayout[0], blackjackPayout[1], numberOfDecks,
+            penetration);
+      return new SimulationJob(id, rules, strategyName, threads, (rounds > 0) ? rounds : Long.MAX_VALUE, target,
+            (long) (maxSeconds * 1e9), seed);
+   } // end parse()
+
+   /**
+    * Function that runs the job on the calling thread, unless it was cancelled
+    * while it waited
+    * @postcondition - the job has ended
+    */
+   void run() {
+      synchronized (this) {
+         if (this.state != QUEUED) {
+            return;
+         }
+         this.setState(RUNNING);
+      }
+
+      try {
+         this.simulator.run(this.seed);
+         synchronized (this) {
+            switch (this.simulator.getStopReason()) {
+            case ConvergentSimulator.STOPPED_AT_TARGET:
+               this.stopReason = "target reached";
+               break;
+            case ConvergentSimulator.STOPPED_AT_ROUND_BUDGET:
+               this.stopReason = (this.target > 0.0) ? "round budget used up" : "rounds played";
+               break;
+            case ConvergentSimulator.STOPPED_AT_TIME_BUDGET:
+               this.stopReason = "time budget used up";
+               break;
+            case ConvergentSimulator.STOPPED_BY_CANCEL:
+               this.stopReason = "cancelled";
+               break;
+            }
+            boolean cancelled = this.simulator.getStopReason() == ConvergentSimulator.STOPPED_BY_CANCEL;
+            this.setState(cancelled ? CANCELLED : DONE);
+         }
+      } catch (RuntimeException e) {
+         synchronized (this) {
+            this.error = String.valueOf(e.getMessage());
+            this.setState(FAILED);
+         }
+      }
+   } // end run()
+
+   /**
+    * Function that cancels the job. A queued job ends at once, a running job
+    * ends once its current batch is played
+    * @return - false if the job had already ended
+    */
+   synchronized boolean cancel() {
+      if (this.state == QUEUED) {
+         this.stopReason = "cancelled";
+         this.setState(CANCELLED);
+         if (this.runner != null) {
+            this.runner.interrupt();
+         }
+         return true;
+      } else if (this.state == RUNNING) {
+         this.simulator.cancel();
+         return true;
+      }
+      return false;
+   } // end cancel()
+
+   /**
+    * Function that tells the job which thread will run it, so cancelling the
+    * job while it is queued can wake that thread
+    * @param runner - the thread that will call run()
+    */
+   synchronized void setRunner(Thread runner) {
+      this.runner = runner;
+   } // end setRunner()
+
+   /**
+    * Function that waits for the job's snapshot to change
+    * @param seenVersion - version of the last snapshot the caller has seen
+    * @param timeoutMillis - most time to wait
+    * @return - the current version, which is seenVersion if the wait timed out
+    * @throws InterruptedException - if the waiting thread is interrupted
+    */
+   synchronized long awaitChange(long seenVersion, long timeoutMillis) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + timeoutMillis;
+      long remaining = timeoutMillis;
+      while (this.version == seenVersion && remaining > 0) {
+         this.wait(remaining);
+         remaining = deadline - System.currentTimeMillis();
+      }
+      return this.version;
+   } // end awaitChange()
+
+   /***************
+    **** Getters
+    ***************/
+   long getId() {
+      return this.id;
+   }
+
+   int getThreads() {
+      return this.threads;
+   }
+
+   synchronized boolean isFinished() {
+      return this.state == DONE || this.state == CANCELLED || this.state == FAILED;
+   }
+
+   /**
+    * Function that describes the job's snapshot
+    * @return - a JSON object of the job's settings and progress
+    */
+   synchronized String toJson() {
+      StringBuilder json = new StringBuilder(320);
+      json.append("{\"id\":").append(this.id);
+      json.append(",\"state\":\"").append(this.state).append('"');
+      json.append(",\"rules\":\"").append(this.rules).append('"');
+      json.append(",\"strategy\":\"").append(this.strategyName).append('"');
+      json.append(",\"threads\":").append(this.threads);
+      json.append(",\"seed\":").append(this.seed);
+      json.append(",\"rounds\":").append(this.rounds);
+      json.append(",\"batches\":").append(this.batches);
+      json.append(String.format(Locale.ROOT, ",\"houseEdge\":%.6f,\"halfWidth95\":%.6f,\"target\":%.6f", this.houseEdge,
+            this.halfWidth, this.target));
+      json.append(String.format(Locale.ROOT, ",\"elapsedSeconds\":%.3f", this.elapsedNanos / 1e9));
+      if (this.stopReason != null) {
+         json.append(",\"stopReason\":\"").append(this.stopReason).append('"');
+      }
+      if (this.error != null) {
+         json.append(",\"error\":\"").append(escape(this.error)).append('"');
+      }
+      return json.append('}').toString();
+   } // end toJson()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function called by the simulator after every batch
+    */
+   private synchronized void batchPlayed(RoundStatistics statistics) {
+      this.rounds = statistics.getRounds();
+      this.houseEdge = -statistics.getMeanNet();
+      this.halfWidth = ConvergentSimulator.halfWidth(statistics);
+      this.batches = this.simulator.getBatches();
+      this.elapsedNanos = this.simulator.getElapsedNanos();
+      this.changed();
+   } // end batchPlayed()
+
+   /**
+    * Private function that moves the job to a new state
+    * @precondition - the caller holds the job's lock
+    */
+   private void setState(String state) {
+      this.state = state;
+      this.changed();
+   } // end setState()
+
+   /**
+    * Private function that wakes every thread waiting on the snapshot
+    * @precondition - the caller holds the job's lock
+    */
+   private void changed() {
+      this.version++;
+      this.notifyAll();
+   } // end changed()
+
+   /**
+    * Function that escapes a string for a JSON string literal, also used by
+    * JobServer for its error replies
+    */
+   static String escape(String text) {
+      StringBuilder escaped = new StringBuilder(text.length());
+      for (int i = 0; i < text.length(); i++) {
+         char c = text.charAt(i);
+         if (c == '"' || c == '\\') {
+            escaped.append('\\').append(c);
+         } else if (c < ' ') {
+            escaped.append(String.format("\\u%04x", (int) c));
+         } else {
+            escaped.append(c);
+         }
+      }
+      return escaped.toString();
+   } // end escape()
+
+}// end of SimulationJob class
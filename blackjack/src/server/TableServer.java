@@ -0,0 +1,248 @@
+/**
+ * server package
+ */
+package server;
+
+import blackjack.GameMetrics;
+import blackjack.MetricsRecorder;
+import blackjack.TableRules;
+import deck.ShoeQueue;
+import deck.ShuffleAhead;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * class that hosts any number of independent blackjack tables over TCP. Every
+ * client that connects is seated at a table of their own, with their own shoe,
+ * and each table is served by a virtual thread - so thousands of idle or slow
+ * clients only cost a little memory each, not a platform thread each. Clients
+ * speak the line protocol described in Protocol. Every table's shoes are
+ * shuffled ahead by one background producer, so a reshuffle never holds up a
+ * round. The server only listens on the loopback address
+ * @author Michael Baker
+ */
+public final class TableServer implements AutoCloseable {
+   public static final int DEFAULT_PORT = 21021;
+   public static final int DEFAULT_STARTING_MONEY = 100;
+   public static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 5 * 60 * 1000;
+   private static final int BACKLOG = 1024;
+
+   private final ServerSocket serverSocket;
+   private final ExecutorService tables = Executors.newVirtualThreadPerTaskExecutor();
+   private final SplittableRandom seeds;
+   private final int startingMoney;
+   private final TableRules rules;
+   private final int idleTimeoutMillis;
+
+   private final AtomicInteger tablesOpen = new AtomicInteger();
+   private final LongAdder tablesServed = new LongAdder();
+   private final LongAdder roundsPlayed = new LongAdder();
+   private final GameMetrics metrics = GameMetrics.getPlatformInstance();
+   private final ShuffleAhead shuffler = new ShuffleAhead("table-shuffler");
+   private Thread acceptor;
+
+   /**
+    * Constructor for a server with the default table settings
+    * @param port - port to listen on, or 0 for any free port
+    * @throws IOException - if the port cannot be bound
+    */
+   public TableServer(int port) throws IOException {
+      this(port, DEFAULT_STARTING_MONEY, TableRules.DEFAULT, DEFAULT_IDLE_TIMEOUT_MILLIS, new SplittableRandom());
+   } // end Constructor
+
+   /**
+    * Constructor for a server
+    * @param port - port to listen on, or 0 for any free port
+    * @param startingMoney - money each client starts with
+    * @param rules - the rules every table plays by, including the size and
+    *        penetration of its shoe
+    * @param idleTimeoutMillis - how long a table waits for its client to answer
+    *        before closing
+    * @param seeds - generator every table's shoe seed is split from
+    * @throws IOException - if the port cannot be bound
+    * @precondition - expects positive money and timeout
+    */
+   public TableServer(int port, int startingMoney, TableRules rules, int idleTimeoutMillis, SplittableRandom seeds)
+         throws IOException {
+      if (startingMoney <= 0 || idleTimeoutMillis <= 0) {
+         throw new RuntimeException("Starting money and the idle timeout must both be greater than zero");
+      }
+      this.startingMoney = startingMoney;
+      this.rules = rules;
+      this.idleTimeoutMillis = idleTimeoutMillis;
+      this.seeds = seeds;
+      this.serverSocket = new ServerSocket();
+      this.serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+   } // end Constructor
+
+   /**
+    * Main function that runs a server until the process is stopped
+    * @param args - optional port to listen on
+    */
+   public static void main(String[] args) throws IOException, InterruptedException {
+      int port = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+      TableServer server = new TableServer(port);
+      server.start();
+      System.out.println("Blackjack tables open on " + server.serverSocket.getLocalSocketAddress());
+      // virtual threads don't keep the process alive on their own
+      server.acceptor.join();
+   } // end of main
+
+   /**
+    * public function that starts accepting clients on a virtual thread of its own
+    * @postcondition - returns at once, clients are seated until close() is called
+    */
+   public synchronized void start() {
+      if (this.acceptor != null) {
+         throw new RuntimeException("The server has already been started");
+      }
+      this.shuffler.start();
+      this.acceptor = Thread.ofVirtual().name("table-acceptor").start(this::acceptClients);
+   } // end start()
+
+   /**
+    * public function that stops accepting clients and closes every table
+    * @postcondition - every table's thread has finished
+    */
+   @Override
+   public void close() throws IOException {
+      this.serverSocket.close();
+      // interrupting the table threads closes their sockets
+      this.tables.shutdownNow();
+      try {
+         this.tables.awaitTermination(10, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      this.shuffler.close();
+   } // end close()
+
+   /***************
+    **** Getters
+    ***************/
+   /**
+    * public getter for the port the server is listening on
+    * @return - the local port
+    */
+   public int getPort() {
+      return this.serverSocket.getLocalPort();
+   }
+
+   /**
+    * public getter for the number of tables with a client seated
+    * @return - number of open tables
+    */
+   public int getTablesOpen() {
+      return this.tablesOpen.get();
+   }
+
+   /**
+    * public getter for the number of clients seated since the server started
+    * @return - number of tables served
+    */
+   public long getTablesServed() {
+      return this.tablesServed.sum();
+   }
+
+   /**
+    * public getter for the number of rounds finished at every table
+    * @return - number of rounds played
+    */
+   public long getRoundsPlayed() {
+      return this.roundsPlayed.sum();
+   }
+
+   int getStartingMoney() {
+      return this.startingMoney;
+   }
+
+   TableRules getRules() {
+      return this.rules;
+   }
+
+   int getIdleTimeoutMillis() {
+      return this.idleTimeoutMillis;
+   }
+
+   MetricsRecorder newMetricsRecorder() {
+      return this.metrics.newRecorder(1);
+   }
+
+   ShoeQueue newShoeQueue(SplittableRandom randomGenerator) {
+      return this.shuffler.newQueue(this.rules.getNumberOfDecks(), ShuffleAhead.DEFAULT_SHOES_AHEAD, randomGenerator);
+   }
+
+   /***************
+    **** Callbacks from the tables
+    ***************/
+   void roundPlayed() {
+      this.roundsPlayed.increment();
+   }
+
+   void tableClosed() {
+      this.tablesOpen.decrementAndGet();
+   }
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function run by the acceptor thread - seats every client that
+    * connects at a new table until the server socket is closed
+    */
+   private void acceptClients() {
+      int nextTableId = 1;
+      while (!this.serverSocket.isClosed()) {
+         Socket client;
+         try {
+            client = this.serverSocket.accept();
+         } catch (IOException e) {
+            // the server socket was closed
+            return;
+         }
+         TableSession session;
+         try {
+            client.setTcpNoDelay(true);
+            // only this thread splits the seeds, so the generator is never shared
+            session = new TableSession(this, client, nextTableId++, this.seeds.split());
+         } catch (IOException e) {
+            // the client could not be seated - hang up and keep serving the others
+            hangUp(client);
+            continue;
+         }
+
+         this.tablesOpen.incrementAndGet();
+         this.tablesServed.increment();
+         try {
+            this.tables.execute(session);
+         } catch (RejectedExecutionException e) {
+            // the server is closing
+            this.tablesOpen.decrementAndGet();
+            hangUp(client);
+            return;
+         }
+      }
+   } // end acceptClients()
+
+   /**
+    * Private function that closes a client's socket, ignoring any failure
+    */
+   private static void hangUp(Socket client) {
+      try {
+         client.close();
+      } catch (IOException e) {
+         // nothing more to do
+      }
+   } // end hangUp()
+
+}// end of TableServer class
@@ -0,0 +1,322 @@
+/**
+ * server package
+ */
+package server;
+
+import actors.Dealer;
+import actors.Player;
+import actors.PlayerStrategy;
+import blackjack.BlackjackLogic;
+import blackjack.GameContext;
+import blackjack.MetricsRecorder;
+import blackjack.TableRules;
+import deck.Card;
+import deck.DealingMachine;
+import deck.Hand;
+import deck.ShoeQueue;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+
+/**
+ * class that runs one table for one connected client. The table has its own
+ * GameContext, DealingMachine, Player and Dealer, which are reset between
+ * rounds - the player's bets and moves are read from the client through the
+ * line protocol described in Protocol. A session
+ * blocks on the client's socket, so it is meant to run on its own virtual
+ * thread
+ * @author Michael Baker
+ */
+final class TableSession implements Runnable {
+   private final Socket socket;
+   private final int tableId;
+   private final ShoeQueue shoes;
+   private final DealingMachine shoe;
+   private final GameContext table = new GameContext();
+   private final RemoteStrategy strategy = new RemoteStrategy();
+   private final Player player = new Player(this.strategy);
+   private final Dealer dealer = new Dealer();
+   private final StringBuilder line = new StringBuilder(64);
+   private final TableServer server;
+
+   private BufferedReader in;
+   private Writer out;
+   private int money;
+
+   /**
+    * Constructor for a session at a new table
+    * @param server - the server the table belongs to
+    * @param socket - the client's connection
+    * @param tableId - number of the table
+    * @param randomGenerator - generator owned by this table's shoe
+    * @precondition - expects active (not null) references
+    */
+   TableSession(TableServer server, Socket socket, int tableId, SplittableRandom randomGenerator) {
+      this.server = server;
+      this.socket = socket;
+      this.tableId = tableId;
+      this.money = server.getStartingMoney();
+      TableRules rules = server.getRules();
+      // new shoes come shuffled from the server's producer
+      this.shoes = server.newShoeQueue(randomGenerator.split());
+      this.shoe = new DealingMachine(rules.getNumberOfDecks(), rules.getPenetration(), randomGenerator, this.shoes);
+      this.table.setRules(rules);
+      this.table.setMetrics(server.newMetricsRecorder());
+      this.player.addMoneyToPlayer(this.money);
+      this.dealer.setQuiet(true);
+   } // end Constructor
+
+   /**
+    * Function that plays rounds with the client until they quit, run out of
+    * money, go quiet for too long or disconnect
+    */
+   @Override
+   public void run() {
+      // the buy-in is reported before anything can throw, so the finally block
+      // always has it to take back
+      this.table.getMetrics().bankrollChanged(this.money);
+      try (Socket client = this.socket) {
+         client.setSoTimeout(this.server.getIdleTimeoutMillis());
+         this.in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+         this.out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.US_ASCII));
+
+         this.start(Protocol.WELCOME).append(' ').append(this.tableId).append(' ').append(this.money);
+         this.send();
+         try {
+            while (this.money > 0) {
+               this.playRound();
+            }
+         } catch (ClientLeft e) {
+            // the client quit or stopped answering - a bet on an unfinished round is
+            // returned
+         }
+         this.start(Protocol.BYE).append(' ').append(this.money);
+         this.sendAndFlush();
+      } catch (IOException e) {
+         // the connection dropped - there is nobody left to tell
+      } finally {
+         // the client takes their money with them
+         this.table.getMetrics().bankrollChanged(-this.money);
+         this.table.getMetrics().flush();
+         this.shoes.close();
+         this.server.tableClosed();
+      }
+   } // end run()
+
+   /***************
+    **** Private helpers
+    ***************/
+   /**
+    * Private function that plays one round, from the bet to the payout
+    */
+   private void playRound() throws IOException {
+      Player player = this.player;
+      Dealer dealer = this.dealer;
+      player.reset();
+      dealer.reset();
+      int bet = player.bet();
+
+      if (this.shoe.reshuffleIfNeeded()) {
+         this.start(Protocol.SHUFFLE);
+         this.send();
+      }
+      this.strategy.reportedCards = 2;
+      this.strategy.upcardShown = false;
+      int gameState = BlackjackLogic.playRound(this.table, dealer, player, this.shoe, null);
+
+      // tell the client about the cards they haven't seen yet
+      this.strategy.showDeal(player.getHand(), this.table.getDealerUpcard());
+      this.strategy.showNewCards(player.getHand());
+      this.start(Protocol.DEALER);
+      Protocol.appendCards(dealer.getHand(), 0, dealer.getHand().size(), this.line);
+      this.line.append(' ').append(dealer.getHand().getTotal());
+      this.send();
+
+      // pay the round out by the table's rules, as the console game does
+      int returned = this.table.getRules().payout(gameState, bet, player.getHand());
+      player.addMoneyToPlayer(returned);
+      String result;
+      switch (gameState) {
+      case BlackjackLogic.GAME_WON_BY_PLAYER:
+         result = Protocol.WIN;
+         break;
+      case BlackjackLogic.GAME_WON_BY_DEALER:
+         result = Protocol.LOSE;
+         break;
+      default:
+         result = Protocol.TIE;
+         break;
+      }
+      MetricsRecorder metrics = this.table.getMetrics();
+      metrics.betSettled(bet, returned);
+      metrics.bankrollChanged(returned - bet);
+      metrics.flush();
+      this.money = player.getMoney();
+      this.start(Protocol.RESULT).append(' ').append(result).append(' ').append(this.money);
+      this.send();
+      this.server.roundPlayed();
+   } // end playRound()
+
+   /**
+    * Private function that starts a new message in the line buffer
+    */
+   private StringBuilder start(String word) {
+      this.line.setLength(0);
+      return this.line.append(word);
+   } // end start()
+
+   /**
+    * Private function that queues the message in the line buffer. Messages are
+    * only flushed when the client is asked a question
+    */
+   private void send() throws IOException {
+      this.out.append(this.line).append('\n');
+   } // end send()
+
+   /**
+    * Private function that sends the message in the line buffer and everything
+    * queued before it
+    */
+   private void sendAndFlush() throws IOException {
+      this.send();
+      this.out.flush();
+   } // end sendAndFlush()
+
+   /**
+    * Private function that reads the client's next line
+    */
+   private String receive() throws IOException {
+      String reply = this.in.readLine();
+      if (reply == null || reply.trim().equals(Protocol.QUIT)) {
+         throw new ClientLeft();
+      }
+      return reply.trim();
+   } // end receive()
+
+   /**
+    * Thrown when the client quits, disconnects or times out in the middle of a
+    * question.
+    * Unchecked so that it can leave BlackjackLogic.playRound() through the
+    * player's strategy
+    */
+   private static final class ClientLeft extends RuntimeException {
+      private static final long serialVersionUID = 1L;
+
+      private ClientLeft() {
+         super(null, null, false, false);
+      }
+   }// end of ClientLeft class
+
+   /**
+    * Strategy that asks the client for every bet and move, telling them about
+    * every card they haven't seen before each question
+    */
+   private final class RemoteStrategy implements PlayerStrategy {
+      private int reportedCards;
+      private boolean upcardShown;
+
+      @Override
+      public int bet(int money) {
+         try {
+            while (true) {
+               TableSession.this.start(Protocol.BET_PROMPT).append(' ').append(money);
+               TableSession.this.sendAndFlush();
+               String reply = TableSession.this.receive();
+               int bet = parseBet(reply);
+               if (bet > 0 && bet <= money) {
+                  return bet;
+               }
+               TableSession.this.start(Protocol.ERROR).append(" bet must be from 1 to ").append(money);
+               TableSession.this.send();
+            }
+         } catch (IOException e) {
+            throw new ClientLeft();
+         }
+      } // end bet()
+
+      @Override
+      public int decide(Hand hand, Card dealerUpcard) {
+         try {
+            this.showDeal(hand, dealerUpcard);
+            this.showNewCards(hand);
+            while (true) {
+               TableSession.this.start(Protocol.MOVE_PROMPT).append(' ').append(hand.getTotal());
+               TableSession.this.sendAndFlush();
+               switch (TableSession.this.receive()) {
+               case Protocol.HIT:
+                  return HIT;
+               case Protocol.STAND:
+                  return STAND;
+               default:
+                  TableSession.this.start(Protocol.ERROR).append(" expected HIT or STAND");
+                  TableSession.this.send();
+               }
+            }
+         } catch (IOException e) {
+            throw new ClientLeft();
+         }
+      } // end decide()
+
+      /**
+       * Sends the first two cards and the upcard if they haven't been sent
+       */
+      private void showDeal(Hand hand, Card dealerUpcard) throws IOException {
+         if (this.upcardShown) {
+            return;
+         }
+         StringBuilder line = TableSession.this.start(Protocol.DEAL);
+         Protocol.appendCards(hand, 0, 2, line);
+         line.append(' ').append(Protocol.UPCARD).append(' ');
+         Protocol.appendCard(dealerUpcard, line);
+         TableSession.this.send();
+         this.upcardShown = true;
+      } // end showDeal()
+
+      /**
+       * Sends a CARD line for every card the player drew since the last question
+       */
+      private void showNewCards(Hand hand) throws IOException {
+         for (; this.reportedCards < hand.size(); this.reportedCards++) {
+            StringBuilder line = TableSession.this.start(Protocol.CARD).append(' ');
+            Protocol.appendCard(hand.getCard(this.reportedCards), line);
+            line.append(' ').append(totalOfFirst(hand, this.reportedCards + 1));
+            TableSession.this.send();
+         }
+      } // end showNewCards()
+   }// end of RemoteStrategy class
+
+   /**
+    * Private function that reads the amount out of a BET line
+    * @return - the amount, or 0 if the line is not a bet
+    */
+   private static int parseBet(String reply) {
+      if (!reply.startsWith(Protocol.BET + " ")) {
+         return 0;
+      }
+      try {
+         return Integer.parseInt(reply.substring(Protocol.BET.length() + 1).trim());
+      } catch (NumberFormatException e) {
+         return 0;
+      }
+   } // end parseBet()
+
+   /**
+    * Private function for the value of the first cards of a hand
+    */
+   private static int totalOfFirst(Hand hand, int cards) {
+      int hardTotal = 0;
+      boolean hasAce = false;
+      for (int i = 0; i < cards; i++) {
+         hardTotal += hand.getCard(i).getRankValue();
+         hasAce |= hand.getCard(i).isAce();
+      }
+      return (hasAce && hardTotal + 10 <= 21) ? hardTotal + 10 : hardTotal;
+   } // end totalOfFirst()
+
+}// end of TableSession class